@@ -21,9 +21,10 @@ public class RequestResponseFilter implements GlobalFilter, Ordered {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
 
-        // Add custom request ID
+        // Add custom request ID; clients may not pose as an internal service caller
         String requestId = UUID.randomUUID().toString();
         ServerHttpRequest modifiedRequest = request.mutate()
+                .headers(headers -> headers.remove("X-Caller-Service"))
                 .header("X-Request-ID", requestId)
                 .header("X-Request-Time", LocalDateTime.now().toString())
                 .build();
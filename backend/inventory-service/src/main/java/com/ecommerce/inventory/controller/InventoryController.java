@@ -1,9 +1,11 @@
 package com.ecommerce.inventory.controller;
 
+import com.ecommerce.inventory.dto.CursorPageResponseDTO;
 import com.ecommerce.inventory.dto.InventoryRequestDTO;
 import com.ecommerce.inventory.dto.InventoryResponseDTO;
 import com.ecommerce.inventory.dto.InventoryUpdateDTO;
 import com.ecommerce.inventory.dto.StockAdjustmentDTO;
+import com.ecommerce.inventory.dto.StockReservationRequestDTO;
 import com.ecommerce.inventory.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -143,6 +145,21 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Get inventory records page by page",
+            description = "Retrieve inventory records newest first, one page at a time. Pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of inventory records retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<InventoryResponseDTO>> getInventoryPage(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponseDTO<InventoryResponseDTO> page = inventoryService.getInventoryPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/warehouse/{warehouseId}")
     @Operation(
             summary = "Get inventory by warehouse",
@@ -426,6 +443,96 @@ public class InventoryController {
         return ResponseEntity.ok(responseDTO);
     }
 
+    @PostMapping("/reserve-batch")
+    @Operation(
+            summary = "Reserve stock for all order items",
+            description = "Reserve inventory for every line of an order in a single transaction. If any line cannot be reserved, no stock is reserved. (Internal API for Order Service)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stock reserved successfully for all items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = InventoryResponseDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Insufficient stock for one or more items"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Inventory not found for one or more products"
+            )
+    })
+    public ResponseEntity<List<InventoryResponseDTO>> reserveStockBatch(
+            @Parameter(description = "Order ID and the product quantities of every order line", required = true)
+            @Valid @RequestBody StockReservationRequestDTO requestDTO) {
+        List<InventoryResponseDTO> inventory = inventoryService.reserveStockBatch(requestDTO);
+        return ResponseEntity.ok(inventory);
+    }
+
+    @PostMapping("/release-batch")
+    @Operation(
+            summary = "Release reserved stock for all order items",
+            description = "Release the reserved stock of every line of an order back to available inventory in a single transaction. Used when order is cancelled. (Internal API for Order Service)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Reserved stock released successfully for all items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = InventoryResponseDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid quantity or reservation not found"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Inventory not found for one or more products"
+            )
+    })
+    public ResponseEntity<List<InventoryResponseDTO>> releaseReservedStockBatch(
+            @Parameter(description = "Order ID and the product quantities of every order line", required = true)
+            @Valid @RequestBody StockReservationRequestDTO requestDTO) {
+        List<InventoryResponseDTO> inventory = inventoryService.releaseReservedStockBatch(requestDTO);
+        return ResponseEntity.ok(inventory);
+    }
+
+    @PostMapping("/confirm-batch")
+    @Operation(
+            summary = "Confirm stock reservation for all order items",
+            description = "Confirm and deduct the reserved stock of every line of an order in a single transaction. (Internal API for Order Service)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Reservations confirmed and stock deducted successfully for all items",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = InventoryResponseDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid quantity or reservation not found"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Inventory not found for one or more products"
+            )
+    })
+    public ResponseEntity<List<InventoryResponseDTO>> confirmReservationBatch(
+            @Parameter(description = "Order ID and the product quantities of every order line", required = true)
+            @Valid @RequestBody StockReservationRequestDTO requestDTO) {
+        List<InventoryResponseDTO> inventory = inventoryService.confirmReservationBatch(requestDTO);
+        return ResponseEntity.ok(inventory);
+    }
+
     @GetMapping("/check-availability")
     @Operation(
             summary = "Check stock availability",
@@ -1,5 +1,7 @@
 package com.ecommerce.inventory.controller;
 
+import com.ecommerce.inventory.config.StreamingResponses;
+import com.ecommerce.inventory.dto.CursorPageResponseDTO;
 import com.ecommerce.inventory.dto.StockMovementResponseDTO;
 import com.ecommerce.inventory.entity.MovementType;
 import com.ecommerce.inventory.service.StockMovementService;
@@ -11,10 +13,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -68,6 +73,21 @@ public class StockMovementController {
         return ResponseEntity.ok(movements);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Get stock movements page by page",
+            description = "Retrieve stock movements newest first, one page at a time. Pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of stock movements retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<StockMovementResponseDTO>> getMovementsPage(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponseDTO<StockMovementResponseDTO> page = stockMovementService.getMovementsPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/inventory/{inventoryId}")
     @Operation(
             summary = "Get stock movements by inventory",
@@ -149,6 +169,25 @@ public class StockMovementController {
         List<StockMovementResponseDTO> movements = stockMovementService.getMovementsByDateRange(startDate, endDate);
         return ResponseEntity.ok(movements);
     }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(
+            summary = "Export stock movements",
+            description = "Stream all stock movements created within the date range as newline-delimited JSON, one per line. Memory use stays constant however many rows are exported."
+    )
+    @ApiResponse(responseCode = "200", description = "Stock movements streamed as NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportMovements(
+            @Parameter(description = "Start date, omit to export from the beginning", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date, omit to export up to now", example = "2024-12-31T23:59:59")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletRequest request) {
+        StreamingResponses.disableTimeout(request);
+        StreamingResponseBody body = out -> stockMovementService.exportMovements(startDate, endDate, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stock-movements.ndjson\"")
+                .body(body);
+    }
 }
 
 
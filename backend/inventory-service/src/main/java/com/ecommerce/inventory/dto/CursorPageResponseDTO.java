@@ -0,0 +1,16 @@
+package com.ecommerce.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDTO<T> {
+    private List<T> items;
+    private String nextCursor; // Pass back as ?cursor= to get the next page, null on the last page
+    private Boolean hasMore;
+}
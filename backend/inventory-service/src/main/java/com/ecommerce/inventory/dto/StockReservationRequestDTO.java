@@ -0,0 +1,23 @@
+package com.ecommerce.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequestDTO {
+
+    @NotBlank(message = "Order ID is required")
+    private String orderId;
+
+    @NotEmpty(message = "Reservation items cannot be empty")
+    @Valid
+    private List<StockReservationItemDTO> items;
+}
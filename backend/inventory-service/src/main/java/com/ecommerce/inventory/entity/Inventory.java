@@ -5,12 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory")
+@Table(name = "inventory", indexes = @Index(name = "idx_inventory_created_at_id", columnList = "createdAt DESC, id DESC"))
+@DynamicUpdate // Only write changed columns, so edits of reorder settings never overwrite stock counters
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
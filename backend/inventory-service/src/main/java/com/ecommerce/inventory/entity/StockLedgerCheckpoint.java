@@ -0,0 +1,25 @@
+package com.ecommerce.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_ledger_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String nodeId; // Inventory service instance that owns the ledger
+
+    @Column(nullable = false)
+    private Long lastSequence; // Highest ledger entry already written back to the database
+
+    private LocalDateTime updatedAt;
+}
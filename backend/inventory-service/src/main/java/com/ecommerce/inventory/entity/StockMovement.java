@@ -9,7 +9,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_movements")
+@Table(name = "stock_movements", indexes = @Index(name = "idx_stock_movements_created_at_id", columnList = "createdAt DESC, id DESC"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,50 @@
+package com.ecommerce.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock movements written in the same transaction as the stock change when the audit writer runs in
+ * outbox mode. Rows are moved to stock_movements in batches and then deleted.
+ */
+@Entity
+@Table(name = "stock_movement_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long inventoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MovementType movementType;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    private Integer previousQuantity;
+
+    private Integer newQuantity;
+
+    private String referenceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MovementReason reason;
+
+    private String notes;
+
+    private Long performedBy;
+
+    private LocalDateTime createdAt;
+}
@@ -2,35 +2,128 @@ package com.ecommerce.inventory.repository;
 
 import com.ecommerce.inventory.entity.Inventory;
 import com.ecommerce.inventory.entity.InventoryStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
+    // Listings select InventoryView rows, so no Inventory or Warehouse entities are loaded or tracked
+    String VIEW_SELECT = "SELECT new com.ecommerce.inventory.repository.InventoryView(i.id, i.productId, i.productName, " +
+            "i.sku, i.availableQuantity, i.reservedQuantity, i.totalQuantity, i.reorderLevel, i.reorderQuantity, " +
+            "w.id, w.code, w.name, w.city, i.status, i.createdAt, i.updatedAt, i.lastRestockedAt) " +
+            "FROM Inventory i LEFT JOIN i.warehouse w ";
+
+    @Query(VIEW_SELECT)
+    List<InventoryView> findAllViews();
+
     Optional<Inventory> findByProductId(Long productId);
 
+    @Query("SELECT i FROM Inventory i LEFT JOIN FETCH i.warehouse WHERE i.productId = :productId")
+    Optional<Inventory> findByProductIdWithWarehouse(@Param("productId") Long productId);
+
     Optional<Inventory> findBySku(String sku);
 
-    List<Inventory> findByWarehouseId(Long warehouseId);
+    @Query(VIEW_SELECT + "WHERE w.id = :warehouseId")
+    List<InventoryView> findByWarehouseId(@Param("warehouseId") Long warehouseId);
 
     List<Inventory> findByStatus(InventoryStatus status);
 
-    @Query("SELECT i FROM Inventory i WHERE i.availableQuantity <= i.reorderLevel")
-    List<Inventory> findLowStockItems();
+    @Query(VIEW_SELECT + "WHERE i.availableQuantity <= i.reorderLevel")
+    List<InventoryView> findLowStockItems();
 
-    @Query("SELECT i FROM Inventory i WHERE i.availableQuantity = 0")
-    List<Inventory> findOutOfStockItems();
+    @Query(VIEW_SELECT + "WHERE i.availableQuantity = 0")
+    List<InventoryView> findOutOfStockItems();
 
-    @Query("SELECT i FROM Inventory i WHERE i.productName LIKE %:keyword% OR i.sku LIKE %:keyword%")
-    List<Inventory> searchInventory(@Param("keyword") String keyword);
+    @Query(VIEW_SELECT + "WHERE i.productName LIKE %:keyword% OR i.sku LIKE %:keyword%")
+    List<InventoryView> searchInventory(@Param("keyword") String keyword);
 
     boolean existsByProductId(Long productId);
 
     boolean existsBySku(String sku);
-}
\ No newline at end of file
+
+    // Conditional single-statement stock updates. Each returns the number of rows changed, which is
+    // 0 when the row does not exist or the guard (enough available/reserved stock) does not hold.
+    // The status is assigned first and computed from the pre-update quantity plus the delta, which
+    // gives the same result whether the database evaluates SET clauses in order (MySQL) or not.
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET " +
+            "i.status = CASE WHEN (i.availableQuantity - :quantity) = 0 THEN com.ecommerce.inventory.entity.InventoryStatus.OUT_OF_STOCK " +
+            "WHEN (i.availableQuantity - :quantity) <= i.reorderLevel THEN com.ecommerce.inventory.entity.InventoryStatus.LOW_STOCK " +
+            "ELSE com.ecommerce.inventory.entity.InventoryStatus.IN_STOCK END, " +
+            "i.availableQuantity = i.availableQuantity - :quantity, i.reservedQuantity = i.reservedQuantity + :quantity, i.updatedAt = :now " +
+            "WHERE i.productId = :productId AND i.availableQuantity >= :quantity")
+    int reserveStock(@Param("productId") Long productId, @Param("quantity") Integer quantity,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET " +
+            "i.status = CASE WHEN (i.availableQuantity + :quantity) = 0 THEN com.ecommerce.inventory.entity.InventoryStatus.OUT_OF_STOCK " +
+            "WHEN (i.availableQuantity + :quantity) <= i.reorderLevel THEN com.ecommerce.inventory.entity.InventoryStatus.LOW_STOCK " +
+            "ELSE com.ecommerce.inventory.entity.InventoryStatus.IN_STOCK END, " +
+            "i.availableQuantity = i.availableQuantity + :quantity, i.reservedQuantity = i.reservedQuantity - :quantity, i.updatedAt = :now " +
+            "WHERE i.productId = :productId AND i.reservedQuantity >= :quantity")
+    int releaseReservedStock(@Param("productId") Long productId, @Param("quantity") Integer quantity,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET " +
+            "i.status = CASE WHEN i.availableQuantity = 0 THEN com.ecommerce.inventory.entity.InventoryStatus.OUT_OF_STOCK " +
+            "WHEN i.availableQuantity <= i.reorderLevel THEN com.ecommerce.inventory.entity.InventoryStatus.LOW_STOCK " +
+            "ELSE com.ecommerce.inventory.entity.InventoryStatus.IN_STOCK END, " +
+            "i.reservedQuantity = i.reservedQuantity - :quantity, i.totalQuantity = i.totalQuantity - :quantity, i.updatedAt = :now " +
+            "WHERE i.productId = :productId AND i.reservedQuantity >= :quantity")
+    int confirmReservation(@Param("productId") Long productId, @Param("quantity") Integer quantity,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET " +
+            "i.status = CASE WHEN (i.availableQuantity + :quantity) = 0 THEN com.ecommerce.inventory.entity.InventoryStatus.OUT_OF_STOCK " +
+            "WHEN (i.availableQuantity + :quantity) <= i.reorderLevel THEN com.ecommerce.inventory.entity.InventoryStatus.LOW_STOCK " +
+            "ELSE com.ecommerce.inventory.entity.InventoryStatus.IN_STOCK END, " +
+            "i.availableQuantity = i.availableQuantity + :quantity, i.totalQuantity = i.totalQuantity + :quantity, i.lastRestockedAt = :now, i.updatedAt = :now " +
+            "WHERE i.id = :id")
+    int addStock(@Param("id") Long id, @Param("quantity") Integer quantity,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET " +
+            "i.status = CASE WHEN (i.availableQuantity - :quantity) = 0 THEN com.ecommerce.inventory.entity.InventoryStatus.OUT_OF_STOCK " +
+            "WHEN (i.availableQuantity - :quantity) <= i.reorderLevel THEN com.ecommerce.inventory.entity.InventoryStatus.LOW_STOCK " +
+            "ELSE com.ecommerce.inventory.entity.InventoryStatus.IN_STOCK END, " +
+            "i.availableQuantity = i.availableQuantity - :quantity, i.totalQuantity = i.totalQuantity - :quantity, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.availableQuantity >= :quantity")
+    int removeStock(@Param("id") Long id, @Param("quantity") Integer quantity,
+                    @Param("now") LocalDateTime now);
+
+    // Write-back of coalesced hot SKU ledger entries. The deltas were already checked against the
+    // in-memory counters, so there is no guard here.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventory i SET " +
+            "i.status = CASE WHEN (i.availableQuantity + :availableDelta) = 0 THEN com.ecommerce.inventory.entity.InventoryStatus.OUT_OF_STOCK " +
+            "WHEN (i.availableQuantity + :availableDelta) <= i.reorderLevel THEN com.ecommerce.inventory.entity.InventoryStatus.LOW_STOCK " +
+            "ELSE com.ecommerce.inventory.entity.InventoryStatus.IN_STOCK END, " +
+            "i.availableQuantity = i.availableQuantity + :availableDelta, i.reservedQuantity = i.reservedQuantity + :reservedDelta, " +
+            "i.totalQuantity = i.totalQuantity + :totalDelta, i.lastRestockedAt = COALESCE(:restockedAt, i.lastRestockedAt), i.updatedAt = :now " +
+            "WHERE i.productId = :productId")
+    int applyStockDelta(@Param("productId") Long productId, @Param("availableDelta") Integer availableDelta,
+                        @Param("reservedDelta") Integer reservedDelta, @Param("totalDelta") Integer totalDelta,
+                        @Param("restockedAt") LocalDateTime restockedAt, @Param("now") LocalDateTime now);
+
+    // Keyset pagination, newest first (see PageCursor)
+    @Query(VIEW_SELECT + "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InventoryView> findPage(Pageable pageable);
+
+    @Query(VIEW_SELECT + "WHERE i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id) " +
+            "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InventoryView> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
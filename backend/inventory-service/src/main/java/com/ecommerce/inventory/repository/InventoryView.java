@@ -0,0 +1,26 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.entity.InventoryStatus;
+
+import java.time.LocalDateTime;
+
+// Read-only inventory row with its warehouse summary, selected by the listing queries instead of entities
+public record InventoryView(
+        Long id,
+        Long productId,
+        String productName,
+        String sku,
+        Integer availableQuantity,
+        Integer reservedQuantity,
+        Integer totalQuantity,
+        Integer reorderLevel,
+        Integer reorderQuantity,
+        Long warehouseId,
+        String warehouseCode,
+        String warehouseName,
+        String warehouseCity,
+        InventoryStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime lastRestockedAt) {
+}
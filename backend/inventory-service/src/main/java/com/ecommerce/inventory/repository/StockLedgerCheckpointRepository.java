@@ -0,0 +1,9 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.entity.StockLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockLedgerCheckpointRepository extends JpaRepository<StockLedgerCheckpoint, String> {
+}
@@ -1,29 +1,62 @@
 package com.ecommerce.inventory.repository;
 
+import com.ecommerce.inventory.dto.StockMovementResponseDTO;
 import com.ecommerce.inventory.entity.MovementType;
 import com.ecommerce.inventory.entity.StockMovement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
 
+    // Listings select straight into the (flat) response DTO, so no StockMovement or Inventory
+    // entities are loaded or tracked
+    String RESPONSE_SELECT = "SELECT new com.ecommerce.inventory.dto.StockMovementResponseDTO(sm.id, i.id, " +
+            "i.productName, i.sku, sm.movementType, sm.quantity, sm.previousQuantity, sm.newQuantity, " +
+            "sm.referenceId, sm.reason, sm.notes, sm.performedBy, sm.createdAt) " +
+            "FROM StockMovement sm JOIN sm.inventory i ";
+
     List<StockMovement> findByInventoryId(Long inventoryId);
 
-    List<StockMovement> findByMovementType(MovementType movementType);
+    @Query(RESPONSE_SELECT)
+    List<StockMovementResponseDTO> findAllResponses();
+
+    @Query(RESPONSE_SELECT + "WHERE sm.movementType = :movementType")
+    List<StockMovementResponseDTO> findByMovementType(@Param("movementType") MovementType movementType);
 
-    List<StockMovement> findByReferenceId(String referenceId);
+    @Query(RESPONSE_SELECT + "WHERE sm.referenceId = :referenceId")
+    List<StockMovementResponseDTO> findByReferenceId(@Param("referenceId") String referenceId);
 
-    @Query("SELECT sm FROM StockMovement sm WHERE sm.createdAt BETWEEN :startDate AND :endDate")
-    List<StockMovement> findByDateRange(
+    @Query(RESPONSE_SELECT + "WHERE sm.createdAt BETWEEN :startDate AND :endDate")
+    List<StockMovementResponseDTO> findByDateRange(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT sm FROM StockMovement sm WHERE sm.inventory.id = :inventoryId ORDER BY sm.createdAt DESC")
-    List<StockMovement> findByInventoryIdOrderByCreatedAtDesc(@Param("inventoryId") Long inventoryId);
-}
\ No newline at end of file
+    @Query(RESPONSE_SELECT + "WHERE i.id = :inventoryId ORDER BY sm.createdAt DESC")
+    List<StockMovementResponseDTO> findByInventoryIdOrderByCreatedAtDesc(@Param("inventoryId") Long inventoryId);
+
+    // Keyset pagination, newest first (see PageCursor)
+    @Query(RESPONSE_SELECT + "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovementResponseDTO> findPage(Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE sm.createdAt < :createdAt OR (sm.createdAt = :createdAt AND sm.id < :id) " +
+            "ORDER BY sm.createdAt DESC, sm.id DESC")
+    List<StockMovementResponseDTO> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Export stream: a fetch size of Integer.MIN_VALUE makes Connector/J stream the result set row by
+    // row instead of loading it whole. The connection runs no other statement until it is closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.inventory WHERE sm.createdAt BETWEEN :startDate AND :endDate ORDER BY sm.id")
+    Stream<StockMovement> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+}
@@ -0,0 +1,465 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.dto.StockAdjustmentDTO;
+import com.ecommerce.inventory.entity.*;
+import com.ecommerce.inventory.exception.InsufficientStockException;
+import com.ecommerce.inventory.exception.ResourceNotFoundException;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.StockLedgerCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stock ledger for hot SKUs (flash sale products).
+ *
+ * The available/reserved/total counters of the configured products live in memory and are guarded
+ * by striped locks, so a reservation never waits on the inventory row lock. An admitted change is
+ * applied in memory at once but only appended to a local write-ahead log once it is committed: right
+ * away outside a transaction, after the caller's transaction commits inside one. A rolled back change
+ * is undone in memory and never logged, so the WAL only holds committed changes. A scheduled job
+ * writes the logged changes back to the inventory table and stock movements in coalesced batches.
+ * On startup any WAL entries newer than the last checkpoint are written back before the ledger
+ * serves requests.
+ *
+ * The WAL is only durable with wal-fsync enabled; without it a machine crash can lose the entries
+ * still in the OS page cache. A change committed by the caller but not yet appended when the
+ * process dies is lost as well, so hot counters may then be short by that change until corrected.
+ *
+ * The in-memory counters are authoritative for hot SKUs, so a hot SKU must be owned by a single
+ * inventory-service instance (route its reservations to one node).
+ */
+@Component
+@Slf4j
+public class HotStockLedger {
+
+    private static final int STRIPES = 64;
+
+    private final InventoryRepository inventoryRepository;
+    private final StockMovementWriter stockMovementWriter;
+    private final StockLedgerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Set<Long> hotProductIds;
+    private final String nodeId;
+    private final StockLedgerWal wal;
+
+    private final Object[] stripes = new Object[STRIPES];
+    // Detached copies of the hot inventory rows, holding the authoritative counters
+    private final ConcurrentMap<Long, Inventory> stock = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> productIdsByInventoryId = new ConcurrentHashMap<>();
+
+    // Sequence assignment, WAL append and queueing happen under one lock so that sealing a segment
+    // and draining the queue always see the same set of entries.
+    private final Object walLock = new Object();
+    private final Queue<StockLedgerEntry> pending = new ArrayDeque<>();
+    private long lastSequence;
+
+    // Entries whose write-back failed; retried ahead of newer entries on the next flush
+    private List<StockLedgerEntry> failedBatch = new ArrayList<>();
+
+    public HotStockLedger(InventoryRepository inventoryRepository,
+                          StockMovementWriter stockMovementWriter,
+                          StockLedgerCheckpointRepository checkpointRepository,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${inventory.hot-stock.enabled:false}") boolean enabled,
+                          @Value("${inventory.hot-stock.product-ids:}") Set<Long> hotProductIds,
+                          @Value("${inventory.hot-stock.node-id:${spring.application.name}}") String nodeId,
+                          @Value("${inventory.hot-stock.wal-dir:data/inventory-ledger}") String walDir,
+                          @Value("${inventory.hot-stock.wal-fsync:true}") boolean walFsync) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockMovementWriter = stockMovementWriter;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.hotProductIds = Set.copyOf(hotProductIds);
+        this.nodeId = nodeId;
+        this.wal = new StockLedgerWal(Path.of(walDir), walFsync);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    void recover() {
+        long checkpoint = checkpointRepository.findById(nodeId)
+                .map(StockLedgerCheckpoint::getLastSequence)
+                .orElse(0L);
+
+        List<StockLedgerEntry> logged = wal.readAll();
+        List<StockLedgerEntry> unapplied = logged.stream()
+                .filter(entry -> entry.getSequence() > checkpoint)
+                .collect(Collectors.toList());
+
+        lastSequence = logged.stream()
+                .mapToLong(StockLedgerEntry::getSequence)
+                .reduce(checkpoint, Math::max);
+
+        if (!unapplied.isEmpty()) {
+            writeBack(unapplied);
+            log.info("Recovered {} stock ledger entries from WAL, last sequence: {}", unapplied.size(), lastSequence);
+        }
+        wal.deleteSealedSegments();
+
+        if (enabled) {
+            for (Long productId : hotProductIds) {
+                try {
+                    load(productId);
+                } catch (ResourceNotFoundException e) {
+                    log.warn("Hot product ID: {} has no inventory yet, it will be loaded on first use", productId);
+                }
+            }
+            log.info("Hot stock ledger enabled for product IDs: {}", hotProductIds);
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return enabled && hotProductIds.contains(productId);
+    }
+
+    /**
+     * Returns the product ID if the inventory row is managed by the ledger, otherwise null.
+     */
+    public Long getHotProductId(Long inventoryId) {
+        return enabled ? productIdsByInventoryId.get(inventoryId) : null;
+    }
+
+    public Inventory getInventory(Long productId) {
+        synchronized (stripeFor(productId)) {
+            return copyOf(load(productId));
+        }
+    }
+
+    public Inventory reserve(Long productId, int quantity, String orderId) {
+        synchronized (stripeFor(productId)) {
+            Inventory inventory = load(productId);
+            int available = inventory.getAvailableQuantity();
+            if (available < quantity) {
+                throw new InsufficientStockException("Insufficient stock for product: " + inventory.getProductName() +
+                        ". Available: " + available + ", Requested: " + quantity);
+            }
+            StockLedgerEntry entry = entry(inventory, -quantity, quantity, 0, MovementType.RESERVED,
+                    MovementReason.ORDER_RESERVATION, quantity, available, available - quantity, orderId,
+                    "Stock reserved for order", null);
+            return admit(inventory, entry);
+        }
+    }
+
+    public Inventory release(Long productId, int quantity, String orderId) {
+        synchronized (stripeFor(productId)) {
+            Inventory inventory = load(productId);
+            if (inventory.getReservedQuantity() < quantity) {
+                throw new IllegalStateException("Cannot release more stock than reserved. Reserved: " +
+                        inventory.getReservedQuantity() + ", Requested: " + quantity);
+            }
+            int available = inventory.getAvailableQuantity();
+            StockLedgerEntry entry = entry(inventory, quantity, -quantity, 0, MovementType.RELEASED,
+                    MovementReason.ORDER_CANCELLATION, quantity, available, available + quantity, orderId,
+                    "Reserved stock released", null);
+            return admit(inventory, entry);
+        }
+    }
+
+    public Inventory confirm(Long productId, int quantity, String orderId) {
+        synchronized (stripeFor(productId)) {
+            Inventory inventory = load(productId);
+            int reserved = inventory.getReservedQuantity();
+            if (reserved < quantity) {
+                throw new IllegalStateException("Cannot confirm more stock than reserved. Reserved: " +
+                        reserved + ", Requested: " + quantity);
+            }
+            StockLedgerEntry entry = entry(inventory, 0, -quantity, -quantity, MovementType.OUT,
+                    MovementReason.SALE, quantity, reserved, reserved - quantity, orderId,
+                    "Order confirmed - stock sold", null);
+            return admit(inventory, entry);
+        }
+    }
+
+    public Inventory addStock(Long productId, StockAdjustmentDTO adjustmentDTO) {
+        int quantity = adjustmentDTO.getQuantity();
+        synchronized (stripeFor(productId)) {
+            Inventory inventory = load(productId);
+            int available = inventory.getAvailableQuantity();
+            StockLedgerEntry entry = entry(inventory, quantity, 0, quantity, MovementType.IN,
+                    adjustmentDTO.getReason(), quantity, available, available + quantity,
+                    adjustmentDTO.getReferenceId(), adjustmentDTO.getNotes(), adjustmentDTO.getPerformedBy());
+            inventory.setLastRestockedAt(LocalDateTime.now());
+            return admit(inventory, entry);
+        }
+    }
+
+    public Inventory removeStock(Long productId, StockAdjustmentDTO adjustmentDTO) {
+        int quantity = adjustmentDTO.getQuantity();
+        synchronized (stripeFor(productId)) {
+            Inventory inventory = load(productId);
+            int available = inventory.getAvailableQuantity();
+            if (available < quantity) {
+                throw new InsufficientStockException("Insufficient stock. Available: " +
+                        available + ", Requested: " + quantity);
+            }
+            StockLedgerEntry entry = entry(inventory, -quantity, 0, -quantity, MovementType.OUT,
+                    adjustmentDTO.getReason(), quantity, available, available - quantity,
+                    adjustmentDTO.getReferenceId(), adjustmentDTO.getNotes(), adjustmentDTO.getPerformedBy());
+            return admit(inventory, entry);
+        }
+    }
+
+    /**
+     * Refreshes the descriptive fields (name, SKU, reorder settings, warehouse) of a hot row after
+     * they were changed in the database. The counters are left alone.
+     */
+    public void updateDetails(Inventory updated) {
+        synchronized (stripeFor(updated.getProductId())) {
+            Inventory inventory = stock.get(updated.getProductId());
+            if (inventory == null) {
+                return;
+            }
+            inventory.setProductName(updated.getProductName());
+            inventory.setSku(updated.getSku());
+            inventory.setReorderLevel(updated.getReorderLevel());
+            inventory.setReorderQuantity(updated.getReorderQuantity());
+            inventory.setWarehouse(copyOf(updated.getWarehouse()));
+            inventory.setStatus(determineStatus(inventory));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot-stock.flush-interval-ms:200}")
+    public synchronized void flush() {
+        List<StockLedgerEntry> batch = new ArrayList<>(failedBatch);
+        synchronized (walLock) {
+            wal.seal();
+            batch.addAll(pending);
+            pending.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeBack(batch);
+            failedBatch = new ArrayList<>();
+        } catch (RuntimeException e) {
+            // Counters stay correct in memory and the WAL still holds the entries; try again next time
+            failedBatch = batch;
+            log.error("Failed to write back {} stock ledger entries, will retry", batch.size(), e);
+            return;
+        }
+
+        synchronized (walLock) {
+            wal.deleteSealedSegments();
+        }
+        log.debug("Wrote back {} stock ledger entries", batch.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        synchronized (walLock) {
+            wal.close();
+        }
+    }
+
+    private Object stripeFor(Long productId) {
+        return stripes[Long.hashCode(productId) & (STRIPES - 1)];
+    }
+
+    // Caller holds the product's stripe lock
+    private Inventory load(Long productId) {
+        Inventory inventory = stock.get(productId);
+        if (inventory == null) {
+            inventory = copyOf(inventoryRepository.findByProductIdWithWarehouse(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId)));
+            stock.put(productId, inventory);
+            productIdsByInventoryId.put(inventory.getId(), productId);
+        }
+        return inventory;
+    }
+
+    // The sequence is assigned when the entry is logged
+    private StockLedgerEntry entry(Inventory inventory, int availableDelta, int reservedDelta, int totalDelta,
+                                   MovementType movementType, MovementReason reason, int quantity,
+                                   int previousQuantity, int newQuantity, String referenceId, String notes,
+                                   Long performedBy) {
+        return new StockLedgerEntry(0, inventory.getProductId(), inventory.getId(), availableDelta, reservedDelta,
+                totalDelta, movementType, reason, quantity, previousQuantity, newQuantity, referenceId, notes,
+                performedBy);
+    }
+
+    // Outside a transaction the change is logged before anything in memory is touched, so a failed
+    // append rejects the request. Inside one it is held in memory until the caller's transaction
+    // completes: logged after a commit, undone after a rollback, so recovery never replays a change
+    // that did not commit.
+    private Inventory admit(Inventory inventory, StockLedgerEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(entry);
+            apply(inventory, entry, 1);
+            return copyOf(inventory);
+        }
+
+        apply(inventory, entry, 1);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                appendCommitted(entry);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    undo(entry);
+                }
+            }
+        });
+        return copyOf(inventory);
+    }
+
+    private void append(StockLedgerEntry entry) {
+        synchronized (walLock) {
+            StockLedgerEntry logged = entry.withSequence(lastSequence + 1);
+            wal.append(logged);
+            lastSequence = logged.getSequence();
+            pending.add(logged);
+        }
+    }
+
+    private void appendCommitted(StockLedgerEntry entry) {
+        try {
+            append(entry);
+        } catch (UncheckedIOException e) {
+            // The caller has committed, so the change stands: it is still written back by the next
+            // flush, but lost if the process dies before that
+            synchronized (walLock) {
+                lastSequence++;
+                pending.add(entry.withSequence(lastSequence));
+            }
+            log.error("Failed to log committed stock ledger change for product ID: {}", entry.getProductId(), e);
+        }
+    }
+
+    private void undo(StockLedgerEntry entry) {
+        synchronized (stripeFor(entry.getProductId())) {
+            Inventory inventory = stock.get(entry.getProductId());
+            if (inventory != null) {
+                apply(inventory, entry, -1);
+                log.info("Rolled back uncommitted stock ledger change for product ID: {}", entry.getProductId());
+            }
+        }
+    }
+
+    private void apply(Inventory inventory, StockLedgerEntry entry, int direction) {
+        inventory.setAvailableQuantity(inventory.getAvailableQuantity() + direction * entry.getAvailableDelta());
+        inventory.setReservedQuantity(inventory.getReservedQuantity() + direction * entry.getReservedDelta());
+        inventory.setTotalQuantity(inventory.getTotalQuantity() + direction * entry.getTotalDelta());
+        inventory.setStatus(determineStatus(inventory));
+        inventory.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private void writeBack(List<StockLedgerEntry> entries) {
+        // Coalesce into one update per product, in product ID order like the batch reservations
+        Map<Long, int[]> deltas = new TreeMap<>();
+        Set<Long> restocked = new HashSet<>();
+        for (StockLedgerEntry entry : entries) {
+            int[] delta = deltas.computeIfAbsent(entry.getProductId(), productId -> new int[3]);
+            delta[0] += entry.getAvailableDelta();
+            delta[1] += entry.getReservedDelta();
+            delta[2] += entry.getTotalDelta();
+            if (entry.getMovementType() == MovementType.IN) {
+                restocked.add(entry.getProductId());
+            }
+        }
+        long maxSequence = entries.stream().mapToLong(StockLedgerEntry::getSequence).max().orElse(0L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Set<Long> missing = new HashSet<>();
+            deltas.forEach((productId, delta) -> {
+                if (inventoryRepository.applyStockDelta(productId, delta[0], delta[1], delta[2],
+                        restocked.contains(productId) ? now : null, now) == 0) {
+                    log.warn("Inventory for hot product ID: {} no longer exists, dropping its ledger entries", productId);
+                    missing.add(productId);
+                }
+            });
+
+            // Already logged in the WAL, so straight into stock_movements in this transaction
+            stockMovementWriter.write(entries.stream()
+                    .filter(entry -> !missing.contains(entry.getProductId()))
+                    .map(this::toStockMovement)
+                    .collect(Collectors.toList()));
+
+            StockLedgerCheckpoint checkpoint = checkpointRepository.findById(nodeId)
+                    .orElseGet(() -> new StockLedgerCheckpoint(nodeId, 0L, null));
+            checkpoint.setLastSequence(Math.max(checkpoint.getLastSequence(), maxSequence));
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private StockMovement toStockMovement(StockLedgerEntry entry) {
+        StockMovement movement = new StockMovement();
+        movement.setInventory(inventoryRepository.getReferenceById(entry.getInventoryId()));
+        movement.setMovementType(entry.getMovementType());
+        movement.setQuantity(entry.getQuantity());
+        movement.setPreviousQuantity(entry.getPreviousQuantity());
+        movement.setNewQuantity(entry.getNewQuantity());
+        movement.setReferenceId(entry.getReferenceId());
+        movement.setReason(entry.getReason());
+        movement.setNotes(entry.getNotes());
+        movement.setPerformedBy(entry.getPerformedBy());
+        return movement;
+    }
+
+    private InventoryStatus determineStatus(Inventory inventory) {
+        if (inventory.getAvailableQuantity() == 0) {
+            return InventoryStatus.OUT_OF_STOCK;
+        } else if (inventory.getAvailableQuantity() <= inventory.getReorderLevel()) {
+            return InventoryStatus.LOW_STOCK;
+        } else {
+            return InventoryStatus.IN_STOCK;
+        }
+    }
+
+    private Inventory copyOf(Inventory source) {
+        Inventory copy = new Inventory();
+        copy.setId(source.getId());
+        copy.setProductId(source.getProductId());
+        copy.setProductName(source.getProductName());
+        copy.setSku(source.getSku());
+        copy.setAvailableQuantity(source.getAvailableQuantity());
+        copy.setReservedQuantity(source.getReservedQuantity());
+        copy.setTotalQuantity(source.getTotalQuantity());
+        copy.setReorderLevel(source.getReorderLevel());
+        copy.setReorderQuantity(source.getReorderQuantity());
+        copy.setWarehouse(copyOf(source.getWarehouse()));
+        copy.setStatus(source.getStatus());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setLastRestockedAt(source.getLastRestockedAt());
+        return copy;
+    }
+
+    // Only the fields used in inventory responses; the copy is never persisted
+    private Warehouse copyOf(Warehouse source) {
+        if (source == null) return null;
+
+        Warehouse copy = new Warehouse();
+        copy.setId(source.getId());
+        copy.setCode(source.getCode());
+        copy.setName(source.getName());
+        copy.setCity(source.getCity());
+        return copy;
+    }
+}
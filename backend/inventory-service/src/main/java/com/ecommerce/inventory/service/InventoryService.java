@@ -7,15 +7,19 @@ import com.ecommerce.inventory.exception.InsufficientStockException;
 import com.ecommerce.inventory.exception.InventoryAlreadyExistsException;
 import com.ecommerce.inventory.exception.ResourceNotFoundException;
 import com.ecommerce.inventory.repository.InventoryRepository;
-import com.ecommerce.inventory.repository.StockMovementRepository;
+import com.ecommerce.inventory.repository.InventoryView;
 import com.ecommerce.inventory.repository.WarehouseRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.sql.Update;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,8 +30,9 @@ public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final WarehouseRepository warehouseRepository;
-    private final StockMovementRepository stockMovementRepository;
+    private final StockMovementWriter stockMovementWriter;
     private final ProductClient productClient;
+    private final HotStockLedger hotStockLedger;
 
     @Transactional
     public InventoryResponseDTO createInventory(InventoryRequestDTO requestDTO) {
@@ -76,12 +81,21 @@ public class InventoryService {
     }
 
     public InventoryResponseDTO getInventoryById(Long id) {
+        Long hotProductId = hotStockLedger.getHotProductId(id);
+        if (hotProductId != null) {
+            return mapToResponseDTO(hotStockLedger.getInventory(hotProductId));
+        }
+
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
         return mapToResponseDTO(inventory);
     }
 
     public InventoryResponseDTO getInventoryByProductId(Long productId) {
+        if (hotStockLedger.isHot(productId)) {
+            return mapToResponseDTO(hotStockLedger.getInventory(productId));
+        }
+
         Inventory inventory = inventoryRepository.findByProductId(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId));
         return mapToResponseDTO(inventory);
@@ -93,30 +107,52 @@ public class InventoryService {
         return mapToResponseDTO(inventory);
     }
 
+    // Listings are selected as InventoryView rows (see InventoryRepository) in read-only transactions
+
+    @Transactional(readOnly = true)
     public List<InventoryResponseDTO> getAllInventory() {
-        return inventoryRepository.findAll().stream()
+        return inventoryRepository.findAllViews().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<InventoryResponseDTO> getInventoryPage(String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<InventoryView> inventories;
+        if (cursor == null || cursor.isBlank()) {
+            inventories = inventoryRepository.findPage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            inventories = inventoryRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return PageCursor.page(inventories, pageSize, InventoryView::createdAt, InventoryView::id, this::mapToResponseDTO);
+    }
+
+    @Transactional(readOnly = true)
     public List<InventoryResponseDTO> getInventoryByWarehouse(Long warehouseId) {
         return inventoryRepository.findByWarehouseId(warehouseId).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<InventoryResponseDTO> getLowStockItems() {
         return inventoryRepository.findLowStockItems().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<InventoryResponseDTO> getOutOfStockItems() {
         return inventoryRepository.findOutOfStockItems().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<InventoryResponseDTO> searchInventory(String keyword) {
         return inventoryRepository.searchInventory(keyword).stream()
                 .map(this::mapToResponseDTO)
@@ -128,6 +164,12 @@ public class InventoryService {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
 
+        boolean hot = hotStockLedger.isHot(inventory.getProductId());
+        if (updateDTO.getAvailableQuantity() != null && hot) {
+            throw new IllegalStateException("Stock of hot product ID: " + inventory.getProductId() +
+                    " is managed by the stock ledger, use add-stock or remove-stock instead");
+        }
+
         if (updateDTO.getAvailableQuantity() != null) {
             int oldQuantity = inventory.getAvailableQuantity();
             inventory.setAvailableQuantity(updateDTO.getAvailableQuantity());
@@ -154,32 +196,41 @@ public class InventoryService {
             inventory.setWarehouse(warehouse);
         }
 
-        inventory.setStatus(determineStatus(inventory));
+        // The stored counters of a hot product lag behind the ledger, its status is set on write-back
+        if (!hot) {
+            inventory.setStatus(determineStatus(inventory));
+        }
         Inventory updatedInventory = inventoryRepository.save(inventory);
 
         log.info("Inventory updated for ID: {}", id);
 
+        if (hot) {
+            hotStockLedger.updateDetails(updatedInventory);
+            return mapToResponseDTO(hotStockLedger.getInventory(updatedInventory.getProductId()));
+        }
+
         return mapToResponseDTO(updatedInventory);
     }
 
     @Transactional
     public InventoryResponseDTO addStock(Long id, StockAdjustmentDTO adjustmentDTO) {
-        Inventory inventory = inventoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
+        Long hotProductId = hotStockLedger.getHotProductId(id);
+        if (hotProductId != null) {
+            Inventory updatedInventory = hotStockLedger.addStock(hotProductId, adjustmentDTO);
+            log.info("Stock added to hot inventory ID: {}, Quantity: {}", id, adjustmentDTO.getQuantity());
+            return mapToResponseDTO(updatedInventory);
+        }
 
-        int previousQuantity = inventory.getAvailableQuantity();
-        int newQuantity = previousQuantity + adjustmentDTO.getQuantity();
+        if (inventoryRepository.addStock(id, adjustmentDTO.getQuantity(), LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Inventory not found with id: " + id);
+        }
 
-        inventory.setAvailableQuantity(newQuantity);
-        inventory.setTotalQuantity(newQuantity + inventory.getReservedQuantity());
-        inventory.setLastRestockedAt(LocalDateTime.now());
-        inventory.setStatus(determineStatus(inventory));
-
-        Inventory updatedInventory = inventoryRepository.save(inventory);
+        Inventory updatedInventory = findInventory(id);
+        int newQuantity = updatedInventory.getAvailableQuantity();
 
         // Create stock movement
         createStockMovement(updatedInventory, MovementType.IN, adjustmentDTO.getQuantity(),
-                previousQuantity, newQuantity, adjustmentDTO.getReferenceId(),
+                newQuantity - adjustmentDTO.getQuantity(), newQuantity, adjustmentDTO.getReferenceId(),
                 adjustmentDTO.getReason(), adjustmentDTO.getNotes(), adjustmentDTO.getPerformedBy());
 
         /***
@@ -195,26 +246,25 @@ public class InventoryService {
 
     @Transactional
     public InventoryResponseDTO removeStock(Long id, StockAdjustmentDTO adjustmentDTO) {
-        Inventory inventory = inventoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
+        Long hotProductId = hotStockLedger.getHotProductId(id);
+        if (hotProductId != null) {
+            Inventory updatedInventory = hotStockLedger.removeStock(hotProductId, adjustmentDTO);
+            log.info("Stock removed from hot inventory ID: {}, Quantity: {}", id, adjustmentDTO.getQuantity());
+            return mapToResponseDTO(updatedInventory);
+        }
 
-        if (inventory.getAvailableQuantity() < adjustmentDTO.getQuantity()) {
+        if (inventoryRepository.removeStock(id, adjustmentDTO.getQuantity(), LocalDateTime.now()) == 0) {
+            Inventory inventory = findInventory(id);
             throw new InsufficientStockException("Insufficient stock. Available: " +
                     inventory.getAvailableQuantity() + ", Requested: " + adjustmentDTO.getQuantity());
         }
 
-        int previousQuantity = inventory.getAvailableQuantity();
-        int newQuantity = previousQuantity - adjustmentDTO.getQuantity();
-
-        inventory.setAvailableQuantity(newQuantity);
-        inventory.setTotalQuantity(newQuantity + inventory.getReservedQuantity());
-        inventory.setStatus(determineStatus(inventory));
-
-        Inventory updatedInventory = inventoryRepository.save(inventory);
+        Inventory updatedInventory = findInventory(id);
+        int newQuantity = updatedInventory.getAvailableQuantity();
 
         // Create stock movement
         createStockMovement(updatedInventory, MovementType.OUT, adjustmentDTO.getQuantity(),
-                previousQuantity, newQuantity, adjustmentDTO.getReferenceId(),
+                newQuantity + adjustmentDTO.getQuantity(), newQuantity, adjustmentDTO.getReferenceId(),
                 adjustmentDTO.getReason(), adjustmentDTO.getNotes(), adjustmentDTO.getPerformedBy());
 
         /***
@@ -230,25 +280,7 @@ public class InventoryService {
 
     @Transactional
     public InventoryResponseDTO reserveStock(Long productId, Integer quantity, String orderId) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId));
-
-        if (inventory.getAvailableQuantity() < quantity) {
-            throw new InsufficientStockException("Insufficient stock for product: " + inventory.getProductName() +
-                    ". Available: " + inventory.getAvailableQuantity() + ", Requested: " + quantity);
-        }
-
-        int previousAvailable = inventory.getAvailableQuantity();
-        inventory.setAvailableQuantity(previousAvailable - quantity);
-        inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
-        inventory.setStatus(determineStatus(inventory));
-
-        Inventory updatedInventory = inventoryRepository.save(inventory);
-
-        // Create stock movement
-        createStockMovement(updatedInventory, MovementType.RESERVED, quantity,
-                previousAvailable, inventory.getAvailableQuantity(), orderId,
-                MovementReason.ORDER_RESERVATION, "Stock reserved for order", null);
+        Inventory updatedInventory = applyReservation(productId, quantity, orderId);
 
         log.info("Stock reserved for product ID: {}, Quantity: {}, Order: {}", productId, quantity, orderId);
 
@@ -257,56 +289,62 @@ public class InventoryService {
 
     @Transactional
     public InventoryResponseDTO releaseReservedStock(Long productId, Integer quantity, String orderId) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId));
+        Inventory updatedInventory = applyRelease(productId, quantity, orderId);
 
-        if (inventory.getReservedQuantity() < quantity) {
-            throw new IllegalStateException("Cannot release more stock than reserved. Reserved: " +
-                    inventory.getReservedQuantity() + ", Requested: " + quantity);
-        }
-
-        int previousAvailable = inventory.getAvailableQuantity();
-        inventory.setAvailableQuantity(previousAvailable + quantity);
-        inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
-        inventory.setStatus(determineStatus(inventory));
+        log.info("Reserved stock released for product ID: {}, Quantity: {}, Order: {}", productId, quantity, orderId);
 
-        Inventory updatedInventory = inventoryRepository.save(inventory);
+        return mapToResponseDTO(updatedInventory);
+    }
 
-        // Create stock movement
-        createStockMovement(updatedInventory, MovementType.RELEASED, quantity,
-                previousAvailable, inventory.getAvailableQuantity(), orderId,
-                MovementReason.ORDER_CANCELLATION, "Reserved stock released", null);
+    @Transactional
+    public InventoryResponseDTO confirmReservation(Long productId, Integer quantity, String orderId) {
+        Inventory updatedInventory = applyConfirmation(productId, quantity, orderId);
 
-        log.info("Reserved stock released for product ID: {}, Quantity: {}, Order: {}", productId, quantity, orderId);
+        log.info("Reservation confirmed for product ID: {}, Quantity: {}, Order: {}", productId, quantity, orderId);
 
         return mapToResponseDTO(updatedInventory);
     }
 
+    // Batch variants: all lines of an order are applied in one transaction, so a failure on any
+    // line rolls back the lines before it. Lines are applied in product ID order so concurrent
+    // batches always lock inventory rows in the same order and cannot deadlock.
     @Transactional
-    public InventoryResponseDTO confirmReservation(Long productId, Integer quantity, String orderId) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId));
+    public List<InventoryResponseDTO> reserveStockBatch(StockReservationRequestDTO requestDTO) {
+        List<InventoryResponseDTO> result = new ArrayList<>();
+        for (StockReservationItemDTO item : sortedByProductId(requestDTO.getItems())) {
+            Inventory updatedInventory = applyReservation(item.getProductId(), item.getQuantity(), requestDTO.getOrderId());
+            result.add(mapToResponseDTO(updatedInventory));
+        }
 
-        if (inventory.getReservedQuantity() < quantity) {
-            throw new IllegalStateException("Cannot confirm more stock than reserved. Reserved: " +
-                    inventory.getReservedQuantity() + ", Requested: " + quantity);
+        log.info("Stock reserved for order: {}, Items: {}", requestDTO.getOrderId(), requestDTO.getItems().size());
+
+        return result;
+    }
+
+    @Transactional
+    public List<InventoryResponseDTO> releaseReservedStockBatch(StockReservationRequestDTO requestDTO) {
+        List<InventoryResponseDTO> result = new ArrayList<>();
+        for (StockReservationItemDTO item : sortedByProductId(requestDTO.getItems())) {
+            Inventory updatedInventory = applyRelease(item.getProductId(), item.getQuantity(), requestDTO.getOrderId());
+            result.add(mapToResponseDTO(updatedInventory));
         }
 
-        int previousReserved = inventory.getReservedQuantity();
-        inventory.setReservedQuantity(previousReserved - quantity);
-        inventory.setTotalQuantity(inventory.getAvailableQuantity() + inventory.getReservedQuantity());
-        inventory.setStatus(determineStatus(inventory));
+        log.info("Reserved stock released for order: {}, Items: {}", requestDTO.getOrderId(), requestDTO.getItems().size());
 
-        Inventory updatedInventory = inventoryRepository.save(inventory);
+        return result;
+    }
 
-        // Create stock movement
-        createStockMovement(updatedInventory, MovementType.OUT, quantity,
-                previousReserved, inventory.getReservedQuantity(), orderId,
-                MovementReason.SALE, "Order confirmed - stock sold", null);
+    @Transactional
+    public List<InventoryResponseDTO> confirmReservationBatch(StockReservationRequestDTO requestDTO) {
+        List<InventoryResponseDTO> result = new ArrayList<>();
+        for (StockReservationItemDTO item : sortedByProductId(requestDTO.getItems())) {
+            Inventory updatedInventory = applyConfirmation(item.getProductId(), item.getQuantity(), requestDTO.getOrderId());
+            result.add(mapToResponseDTO(updatedInventory));
+        }
 
-        log.info("Reservation confirmed for product ID: {}, Quantity: {}, Order: {}", productId, quantity, orderId);
+        log.info("Reservation confirmed for order: {}, Items: {}", requestDTO.getOrderId(), requestDTO.getItems().size());
 
-        return mapToResponseDTO(updatedInventory);
+        return result;
     }
 
     @Transactional
@@ -314,17 +352,110 @@ public class InventoryService {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
 
+        if (hotStockLedger.isHot(inventory.getProductId())) {
+            throw new IllegalStateException("Inventory of hot product ID: " + inventory.getProductId() +
+                    " is managed by the stock ledger and cannot be deleted");
+        }
+
         inventoryRepository.delete(inventory);
         log.info("Inventory deleted - ID: {}", id);
     }
 
     public boolean checkStockAvailability(Long productId, Integer quantity) {
+        if (hotStockLedger.isHot(productId)) {
+            return hotStockLedger.getInventory(productId).getAvailableQuantity() >= quantity;
+        }
+
         Inventory inventory = inventoryRepository.findByProductId(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId));
 
         return inventory.getAvailableQuantity() >= quantity;
     }
 
+    private Inventory findInventory(Long id) {
+        return inventoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
+    }
+
+    private Inventory findInventoryByProductId(Long productId) {
+        return inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product ID: " + productId));
+    }
+
+    private List<StockReservationItemDTO> sortedByProductId(List<StockReservationItemDTO> items) {
+        return items.stream()
+                .sorted(Comparator.comparing(StockReservationItemDTO::getProductId))
+                .collect(Collectors.toList());
+    }
+
+    // The stock changes below are single conditional UPDATE statements, so concurrent requests for
+    // the same product cannot oversell or lose updates. The row is re-read afterwards for the
+    // stock movement record and the response. Hot products go through the in-memory stock ledger
+    // instead, which writes the changes back in batches.
+
+    private Inventory applyReservation(Long productId, Integer quantity, String orderId) {
+        if (hotStockLedger.isHot(productId)) {
+            return hotStockLedger.reserve(productId, quantity, orderId);
+        }
+
+        if (inventoryRepository.reserveStock(productId, quantity, LocalDateTime.now()) == 0) {
+            Inventory inventory = findInventoryByProductId(productId);
+            throw new InsufficientStockException("Insufficient stock for product: " + inventory.getProductName() +
+                    ". Available: " + inventory.getAvailableQuantity() + ", Requested: " + quantity);
+        }
+
+        Inventory updatedInventory = findInventoryByProductId(productId);
+
+        // Create stock movement
+        createStockMovement(updatedInventory, MovementType.RESERVED, quantity,
+                updatedInventory.getAvailableQuantity() + quantity, updatedInventory.getAvailableQuantity(), orderId,
+                MovementReason.ORDER_RESERVATION, "Stock reserved for order", null);
+
+        return updatedInventory;
+    }
+
+    private Inventory applyRelease(Long productId, Integer quantity, String orderId) {
+        if (hotStockLedger.isHot(productId)) {
+            return hotStockLedger.release(productId, quantity, orderId);
+        }
+
+        if (inventoryRepository.releaseReservedStock(productId, quantity, LocalDateTime.now()) == 0) {
+            Inventory inventory = findInventoryByProductId(productId);
+            throw new IllegalStateException("Cannot release more stock than reserved. Reserved: " +
+                    inventory.getReservedQuantity() + ", Requested: " + quantity);
+        }
+
+        Inventory updatedInventory = findInventoryByProductId(productId);
+
+        // Create stock movement
+        createStockMovement(updatedInventory, MovementType.RELEASED, quantity,
+                updatedInventory.getAvailableQuantity() - quantity, updatedInventory.getAvailableQuantity(), orderId,
+                MovementReason.ORDER_CANCELLATION, "Reserved stock released", null);
+
+        return updatedInventory;
+    }
+
+    private Inventory applyConfirmation(Long productId, Integer quantity, String orderId) {
+        if (hotStockLedger.isHot(productId)) {
+            return hotStockLedger.confirm(productId, quantity, orderId);
+        }
+
+        if (inventoryRepository.confirmReservation(productId, quantity, LocalDateTime.now()) == 0) {
+            Inventory inventory = findInventoryByProductId(productId);
+            throw new IllegalStateException("Cannot confirm more stock than reserved. Reserved: " +
+                    inventory.getReservedQuantity() + ", Requested: " + quantity);
+        }
+
+        Inventory updatedInventory = findInventoryByProductId(productId);
+
+        // Create stock movement
+        createStockMovement(updatedInventory, MovementType.OUT, quantity,
+                updatedInventory.getReservedQuantity() + quantity, updatedInventory.getReservedQuantity(), orderId,
+                MovementReason.SALE, "Order confirmed - stock sold", null);
+
+        return updatedInventory;
+    }
+
     private void createStockMovement(Inventory inventory, MovementType movementType,
                                      Integer quantity, Integer previousQuantity, Integer newQuantity,
                                      String referenceId, MovementReason reason, String notes, Long performedBy) {
@@ -339,7 +470,7 @@ public class InventoryService {
         movement.setNotes(notes);
         movement.setPerformedBy(performedBy);
 
-        stockMovementRepository.save(movement);
+        stockMovementWriter.record(movement);
     }
 
     private InventoryStatus determineStatus(Inventory inventory) {
@@ -371,6 +502,32 @@ public class InventoryService {
         return dto;
     }
 
+    private InventoryResponseDTO mapToResponseDTO(InventoryView inventory) {
+        InventoryResponseDTO dto = new InventoryResponseDTO();
+        dto.setId(inventory.id());
+        dto.setProductId(inventory.productId());
+        dto.setProductName(inventory.productName());
+        dto.setSku(inventory.sku());
+        dto.setAvailableQuantity(inventory.availableQuantity());
+        dto.setReservedQuantity(inventory.reservedQuantity());
+        dto.setTotalQuantity(inventory.totalQuantity());
+        dto.setReorderLevel(inventory.reorderLevel());
+        dto.setReorderQuantity(inventory.reorderQuantity());
+        if (inventory.warehouseId() != null) {
+            WarehouseResponseDTO warehouse = new WarehouseResponseDTO();
+            warehouse.setId(inventory.warehouseId());
+            warehouse.setCode(inventory.warehouseCode());
+            warehouse.setName(inventory.warehouseName());
+            warehouse.setCity(inventory.warehouseCity());
+            dto.setWarehouse(warehouse);
+        }
+        dto.setStatus(inventory.status());
+        dto.setCreatedAt(inventory.createdAt());
+        dto.setUpdatedAt(inventory.updatedAt());
+        dto.setLastRestockedAt(inventory.lastRestockedAt());
+        return dto;
+    }
+
     private WarehouseResponseDTO mapWarehouseToSimpleDTO(Warehouse warehouse) {
         if (warehouse == null) return null;
 
@@ -0,0 +1,79 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.dto.CursorPageResponseDTO;
+import com.ecommerce.inventory.exception.InvalidPageCursorException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset pagination over (createdAt, id), newest first. The opaque cursor is the position of the
+ * last row of the previous page, so every page is an index seek instead of an OFFSET scan and rows
+ * inserted meanwhile never shift or repeat rows across pages.
+ */
+@Getter
+public final class PageCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidPageCursorException("Invalid page cursor: " + token);
+        }
+    }
+
+    public static String encode(LocalDateTime createdAt, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of pageSize + 1; the extra row only tells
+     * whether there is a next page.
+     */
+    public static <E, T> CursorPageResponseDTO<T> page(List<E> rows, int pageSize,
+                                                       Function<E, LocalDateTime> createdAt,
+                                                       Function<E, Long> id,
+                                                       Function<E, T> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = encode(createdAt.apply(last), id.apply(last));
+        }
+
+        List<T> items = pageRows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new CursorPageResponseDTO<>(items, nextCursor, hasMore);
+    }
+}
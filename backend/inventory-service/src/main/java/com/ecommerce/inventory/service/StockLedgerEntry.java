@@ -0,0 +1,32 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.MovementReason;
+import com.ecommerce.inventory.entity.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+/**
+ * One stock change admitted by the {@link HotStockLedger}: the counter deltas that still have to be
+ * applied to the inventory row plus the stock movement that records it.
+ */
+@Getter
+@AllArgsConstructor
+class StockLedgerEntry {
+
+    @With
+    private final long sequence;
+    private final Long productId;
+    private final Long inventoryId;
+    private final int availableDelta;
+    private final int reservedDelta;
+    private final int totalDelta;
+    private final MovementType movementType;
+    private final MovementReason reason;
+    private final int quantity;
+    private final int previousQuantity;
+    private final int newQuantity;
+    private final String referenceId;
+    private final String notes;
+    private final Long performedBy;
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.MovementReason;
+import com.ecommerce.inventory.entity.MovementType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead log of {@link StockLedgerEntry} records, one tab separated line per entry.
+ * The log is split into segment files named after their first sequence number; a segment is sealed
+ * on every write-back and deleted once everything in it has reached the database.
+ * Not thread-safe: the ledger serializes all calls.
+ */
+@Slf4j
+class StockLedgerWal {
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private FileChannel current;
+    private Path currentPath;
+    private int currentEntries;
+
+    StockLedgerWal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads every segment left behind by a previous run, in sequence order.
+     */
+    List<StockLedgerEntry> readAll() {
+        List<StockLedgerEntry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            String content;
+            try {
+                // Decoded leniently: a torn append may end in the middle of a multi-byte character
+                content = new String(Files.readAllBytes(segment), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read ledger WAL segment " + segment, e);
+            }
+            // Only newline-terminated lines are complete. Text after the last newline is a torn append:
+            // the process died mid-write, before the change was acknowledged. It may still split into
+            // the right number of fields (e.g. cut inside the last one), so it is never decoded.
+            int end = content.lastIndexOf('\n') + 1;
+            if (end < content.length()) {
+                log.warn("Skipping torn last ledger WAL line in {}: {}", segment, content.substring(end));
+            }
+            for (String line : content.substring(0, end).split("\n")) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    entries.add(decode(line));
+                } catch (RuntimeException e) {
+                    log.warn("Skipping unreadable ledger WAL line in {}: {}", segment, line);
+                }
+            }
+        }
+        return entries;
+    }
+
+    void append(StockLedgerEntry entry) {
+        try {
+            if (current == null) {
+                openSegment(entry.getSequence());
+            }
+            ByteBuffer buffer = ByteBuffer.wrap((encode(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            if (fsync) {
+                current.force(false);
+            }
+            currentEntries++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to ledger WAL " + currentPath, e);
+        }
+    }
+
+    /**
+     * Seals the current segment so the next append starts a new one. Returns false if there was
+     * nothing to seal.
+     */
+    boolean seal() {
+        if (current == null || currentEntries == 0) {
+            return false;
+        }
+        try {
+            current.force(false);
+            current.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to seal ledger WAL segment " + currentPath, e);
+        }
+        current = null;
+        currentPath = null;
+        currentEntries = 0;
+        return true;
+    }
+
+    /**
+     * Deletes every segment except the one currently being appended to.
+     */
+    void deleteSealedSegments() {
+        for (Path segment : segments()) {
+            if (segment.equals(currentPath)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.warn("Failed to delete ledger WAL segment {}", segment, e);
+            }
+        }
+    }
+
+    void close() {
+        seal();
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Files.createDirectories(directory);
+        currentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        current = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        currentEntries = 0;
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero padded sequence numbers, so name order is sequence order
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list ledger WAL directory " + directory, e);
+        }
+    }
+
+    private static String encode(StockLedgerEntry entry) {
+        return String.join("\t",
+                String.valueOf(entry.getSequence()),
+                String.valueOf(entry.getProductId()),
+                String.valueOf(entry.getInventoryId()),
+                String.valueOf(entry.getAvailableDelta()),
+                String.valueOf(entry.getReservedDelta()),
+                String.valueOf(entry.getTotalDelta()),
+                entry.getMovementType().name(),
+                entry.getReason().name(),
+                String.valueOf(entry.getQuantity()),
+                String.valueOf(entry.getPreviousQuantity()),
+                String.valueOf(entry.getNewQuantity()),
+                text(entry.getReferenceId()),
+                text(entry.getNotes()),
+                entry.getPerformedBy() != null ? String.valueOf(entry.getPerformedBy()) : "");
+    }
+
+    private static StockLedgerEntry decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 14) {
+            throw new IllegalArgumentException("Expected 14 fields but found " + fields.length);
+        }
+        return new StockLedgerEntry(
+                Long.parseLong(fields[0]),
+                Long.valueOf(fields[1]),
+                Long.valueOf(fields[2]),
+                Integer.parseInt(fields[3]),
+                Integer.parseInt(fields[4]),
+                Integer.parseInt(fields[5]),
+                MovementType.valueOf(fields[6]),
+                MovementReason.valueOf(fields[7]),
+                Integer.parseInt(fields[8]),
+                Integer.parseInt(fields[9]),
+                Integer.parseInt(fields[10]),
+                fields[11].isEmpty() ? null : fields[11],
+                fields[12].isEmpty() ? null : fields[12],
+                fields[13].isEmpty() ? null : Long.valueOf(fields[13]));
+    }
+
+    private static String text(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -1,17 +1,27 @@
 package com.ecommerce.inventory.service;
 
+import com.ecommerce.inventory.dto.CursorPageResponseDTO;
 import com.ecommerce.inventory.dto.StockMovementResponseDTO;
 import com.ecommerce.inventory.entity.MovementType;
 import com.ecommerce.inventory.entity.StockMovement;
 import com.ecommerce.inventory.exception.ResourceNotFoundException;
 import com.ecommerce.inventory.repository.StockMovementRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +29,8 @@ import java.util.stream.Collectors;
 public class StockMovementService {
 
     private final StockMovementRepository stockMovementRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     public StockMovementResponseDTO getMovementById(Long id) {
         StockMovement movement = stockMovementRepository.findById(id)
@@ -26,34 +38,68 @@ public class StockMovementService {
         return mapToResponseDTO(movement);
     }
 
+    // Listings are selected as DTOs (see StockMovementRepository) in read-only transactions
+
+    @Transactional(readOnly = true)
     public List<StockMovementResponseDTO> getAllMovements() {
-        return stockMovementRepository.findAll().stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return stockMovementRepository.findAllResponses();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<StockMovementResponseDTO> getMovementsPage(String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<StockMovementResponseDTO> movements;
+        if (cursor == null || cursor.isBlank()) {
+            movements = stockMovementRepository.findPage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            movements = stockMovementRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return PageCursor.page(movements, pageSize, StockMovementResponseDTO::getCreatedAt,
+                StockMovementResponseDTO::getId, Function.identity());
     }
 
+    @Transactional(readOnly = true)
     public List<StockMovementResponseDTO> getMovementsByInventory(Long inventoryId) {
-        return stockMovementRepository.findByInventoryIdOrderByCreatedAtDesc(inventoryId).stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return stockMovementRepository.findByInventoryIdOrderByCreatedAtDesc(inventoryId);
     }
 
+    @Transactional(readOnly = true)
     public List<StockMovementResponseDTO> getMovementsByType(MovementType movementType) {
-        return stockMovementRepository.findByMovementType(movementType).stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return stockMovementRepository.findByMovementType(movementType);
     }
 
+    @Transactional(readOnly = true)
     public List<StockMovementResponseDTO> getMovementsByReference(String referenceId) {
-        return stockMovementRepository.findByReferenceId(referenceId).stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return stockMovementRepository.findByReferenceId(referenceId);
     }
 
+    @Transactional(readOnly = true)
     public List<StockMovementResponseDTO> getMovementsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return stockMovementRepository.findByDateRange(startDate, endDate).stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return stockMovementRepository.findByDateRange(startDate, endDate);
+    }
+
+    /**
+     * Writes the stock movements created in the range to the output stream as newline-delimited JSON.
+     * Rows are streamed from the database and detached once written, so memory use does not grow
+     * with the size of the export. Missing bounds default to everything up to now.
+     */
+    @Transactional(readOnly = true)
+    public void exportMovements(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) throws IOException {
+        LocalDateTime from = startDate != null ? startDate : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+
+        try (Stream<StockMovement> movements = stockMovementRepository.streamByDateRange(from, to)) {
+            Iterator<StockMovement> iterator = movements.iterator();
+            while (iterator.hasNext()) {
+                StockMovement movement = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(mapToResponseDTO(movement)));
+                out.write('\n');
+                entityManager.detach(movement);
+            }
+        }
     }
 
     private StockMovementResponseDTO mapToResponseDTO(StockMovement movement) {
@@ -0,0 +1,320 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.StockMovement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes stock movement audit records off the stock change path, using JDBC batch inserts
+ * (IDENTITY ids keep Hibernate from batching inserts itself).
+ *
+ * async  - movements of a transaction are queued after it commits and a writer thread inserts them
+ *          every batch-size rows or flush-interval-ms. Queued rows are lost if the process dies.
+ * outbox - movements are batch inserted into stock_movement_outbox just before the transaction
+ *          commits, so they are stored atomically with the stock change, and a relay job moves them
+ *          to stock_movements. Drain the outbox before switching back to async mode.
+ */
+@Component
+@Slf4j
+public class StockMovementWriter {
+
+    enum Mode { ASYNC, OUTBOX }
+
+    private static final String MOVEMENTS_TABLE = "stock_movements";
+    private static final String OUTBOX_TABLE = "stock_movement_outbox";
+    private static final String COLUMNS = "inventory_id, movement_type, quantity, previous_quantity, new_quantity, " +
+            "reference_id, reason, notes, performed_by, created_at";
+    private static final int MAX_LOGGED_REFERENCES = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<StockMovement> queue;
+
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter rejectedCounter;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public StockMovementWriter(JdbcTemplate jdbcTemplate,
+                               NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.audit.mode:async}") String mode,
+                               @Value("${inventory.audit.batch-size:500}") int batchSize,
+                               @Value("${inventory.audit.flush-interval-ms:100}") long flushIntervalMs,
+                               @Value("${inventory.audit.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("inventory.audit.queue.depth", queue, BlockingQueue::size)
+                .description("Stock movements waiting for the async audit writer")
+                .register(meterRegistry);
+        // Counted when the metric is read, not on every relay run
+        Gauge.builder("inventory.audit.outbox.depth", this, StockMovementWriter::countOutbox)
+                .description("Stock movements waiting in the outbox")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("inventory.audit.flush")
+                .description("Time to write one batch of stock movements")
+                .tag("mode", this.mode.name().toLowerCase())
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("inventory.audit.movements.written")
+                .description("Stock movements written to stock_movements")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("inventory.audit.queue.rejected")
+                .description("Stock movements written synchronously because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (mode == Mode.ASYNC) {
+            worker = new Thread(this::drainQueue, "stock-movement-writer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        log.info("Stock movement audit writer started in {} mode", mode);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (mode == Mode.OUTBOX) {
+            relayOutbox();
+        }
+    }
+
+    /**
+     * Records a stock movement. Inside a transaction the movement is only written if that
+     * transaction commits.
+     */
+    public void record(StockMovement movement) {
+        if (movement.getCreatedAt() == null) {
+            movement.setCreatedAt(LocalDateTime.now());
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(List.of(movement));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<StockMovement> pending = (List<StockMovement>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<StockMovement> movements = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, movements);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (mode == Mode.OUTBOX) {
+                        insert(OUTBOX_TABLE, movements);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (mode == Mode.ASYNC) {
+                        enqueue(movements);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StockMovementWriter.this);
+                }
+            });
+            pending = movements;
+        }
+        pending.add(movement);
+    }
+
+    /**
+     * Batch inserts movements straight into stock_movements, in the caller's transaction if there is one.
+     */
+    public void write(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> insert(MOVEMENTS_TABLE, movements));
+        writtenCounter.increment(movements.size());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.audit.flush-interval-ms:100}")
+    public void relayOutbox() {
+        if (mode != Mode.OUTBOX) {
+            return;
+        }
+
+        try {
+            int relayed;
+            do {
+                relayed = flushTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+                writtenCounter.increment(relayed);
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to relay stock movement outbox, will retry", e);
+        }
+    }
+
+    private int relayBatch() {
+        // Locking read, so two instances relaying at the same time never copy the same rows
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM " + OUTBOX_TABLE + " ORDER BY id LIMIT ? FOR UPDATE", Long.class, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Object> params = Map.of("ids", ids);
+        namedParameterJdbcTemplate.update("INSERT INTO " + MOVEMENTS_TABLE + " (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM " + OUTBOX_TABLE + " WHERE id IN (:ids) ORDER BY id", params);
+        namedParameterJdbcTemplate.update("DELETE FROM " + OUTBOX_TABLE + " WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+
+    private double countOutbox() {
+        if (mode != Mode.OUTBOX) {
+            return 0;
+        }
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + OUTBOX_TABLE, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void dispatch(List<StockMovement> movements) {
+        if (mode == Mode.OUTBOX) {
+            insert(OUTBOX_TABLE, movements);
+        } else {
+            enqueue(movements);
+        }
+    }
+
+    private void enqueue(List<StockMovement> movements) {
+        List<StockMovement> rejected = new ArrayList<>();
+        for (StockMovement movement : movements) {
+            if (!queue.offer(movement)) {
+                rejected.add(movement);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            // Back pressure instead of dropping audit records: the caller pays for the insert
+            rejectedCounter.increment(rejected.size());
+            write(rejected);
+        }
+    }
+
+    private void drainQueue() {
+        List<StockMovement> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                StockMovement first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Collect until the batch is full or the flush interval since its first row has passed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    StockMovement next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeWithRetry(List<StockMovement> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == 3) {
+                    log.error("Dropping {} stock movements after {} failed attempts: {}", batch.size(), attempt, summarize(batch), e);
+                    return;
+                }
+                log.warn("Failed to write {} stock movements, retrying", batch.size(), e);
+                Thread.sleep(flushIntervalMs * attempt);
+            }
+        }
+    }
+
+    // Enough to find the dropped movements without logging every one of them
+    private static String summarize(List<StockMovement> batch) {
+        List<String> references = batch.stream()
+                .map(StockMovement::getReferenceId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(MAX_LOGGED_REFERENCES)
+                .toList();
+        return "inventory " + batch.get(0).getInventory().getId() + " to " + batch.get(batch.size() - 1).getInventory().getId()
+                + ", references " + references + (references.size() == MAX_LOGGED_REFERENCES ? " and more" : "");
+    }
+
+    private void insert(String table, List<StockMovement> movements) {
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                movements, movements.size(), (ps, movement) -> {
+                    ps.setLong(1, movement.getInventory().getId());
+                    ps.setString(2, movement.getMovementType().name());
+                    ps.setInt(3, movement.getQuantity());
+                    ps.setObject(4, movement.getPreviousQuantity(), Types.INTEGER);
+                    ps.setObject(5, movement.getNewQuantity(), Types.INTEGER);
+                    ps.setString(6, movement.getReferenceId());
+                    ps.setString(7, movement.getReason().name());
+                    ps.setString(8, movement.getNotes());
+                    ps.setObject(9, movement.getPerformedBy(), Types.BIGINT);
+                    ps.setTimestamp(10, Timestamp.valueOf(movement.getCreatedAt() != null
+                            ? movement.getCreatedAt() : LocalDateTime.now()));
+                });
+    }
+}
@@ -0,0 +1,80 @@
+-- Baseline of the tables owned by inventory-service, as Hibernate created them with ddl-auto: update.
+-- IF NOT EXISTS keeps this a no-op on databases that already have them (see spring.flyway in
+-- application.yml); parent tables come first for the foreign keys.
+
+create table if not exists warehouses (
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    address varchar(255),
+    city varchar(255),
+    code varchar(255) not null,
+    contact_email varchar(255),
+    contact_person varchar(255),
+    contact_phone varchar(255),
+    country varchar(255),
+    name varchar(255) not null,
+    state varchar(255),
+    zip_code varchar(255),
+    status enum ('ACTIVE','INACTIVE','MAINTENANCE') not null,
+    primary key (id),
+    constraint UK6herdbg4x5wp6gkor8epv73oc unique (code)
+) engine=InnoDB;
+
+create table if not exists inventory (
+    available_quantity integer not null,
+    reorder_level integer not null,
+    reorder_quantity integer not null,
+    reserved_quantity integer not null,
+    total_quantity integer not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    last_restocked_at datetime(6),
+    product_id bigint not null,
+    updated_at datetime(6),
+    warehouse_id bigint,
+    product_name varchar(255) not null,
+    sku varchar(255) not null,
+    status enum ('DISCONTINUED','IN_STOCK','LOW_STOCK','OUT_OF_STOCK') not null,
+    primary key (id),
+    constraint UKce3rbi3bfstbvvyne34c1dvyv unique (product_id),
+    constraint FK52wtagl8u69w0vduys8nsyi0x foreign key (warehouse_id) references warehouses (id)
+) engine=InnoDB;
+
+create table if not exists stock_ledger_checkpoints (
+    last_sequence bigint not null,
+    updated_at datetime(6),
+    node_id varchar(100) not null,
+    primary key (node_id)
+) engine=InnoDB;
+
+create table if not exists stock_movement_outbox (
+    new_quantity integer,
+    previous_quantity integer,
+    quantity integer not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    inventory_id bigint not null,
+    performed_by bigint,
+    notes varchar(255),
+    reference_id varchar(255),
+    movement_type enum ('IN','OUT','RELEASED','RESERVED') not null,
+    reason enum ('ADJUSTMENT','DAMAGED','ORDER_CANCELLATION','ORDER_RESERVATION','PURCHASE','RETURN','SALE','TRANSFER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table if not exists stock_movements (
+    new_quantity integer,
+    previous_quantity integer,
+    quantity integer not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    inventory_id bigint not null,
+    performed_by bigint,
+    notes varchar(255),
+    reference_id varchar(255),
+    movement_type enum ('IN','OUT','RELEASED','RESERVED') not null,
+    reason enum ('ADJUSTMENT','DAMAGED','ORDER_CANCELLATION','ORDER_RESERVATION','PURCHASE','RETURN','SALE','TRANSFER') not null,
+    primary key (id),
+    constraint FKqlsf4auk79etqngl1f6h0x0mh foreign key (inventory_id) references inventory (id)
+) engine=InnoDB;
@@ -0,0 +1,21 @@
+-- Indexes for the inventory-service repository queries that filtered or sorted on unindexed columns.
+-- V1 only creates missing tables, so every index an existing table needs is created here.
+-- Indexes walked for newest first listings are descending, so the scan runs forward in listing order.
+
+-- findPage, findPageAfter
+create index idx_inventory_created_at_id on inventory (created_at desc, id desc);
+
+-- findBySku
+create index idx_inventory_sku on inventory (sku);
+
+-- StockMovementRepository.findPage, findPageAfter, findByDateRange, streamByDateRange
+create index idx_stock_movements_created_at_id on stock_movements (created_at desc, id desc);
+
+-- StockMovementRepository.findByReferenceId
+create index idx_stock_movements_reference_id on stock_movements (reference_id);
+
+-- StockMovementRepository.findByMovementType
+create index idx_stock_movements_movement_type on stock_movements (movement_type);
+
+-- StockMovementRepository.findByInventoryIdOrderByCreatedAtDesc
+create index idx_stock_movements_inventory_id_created_at on stock_movements (inventory_id, created_at);
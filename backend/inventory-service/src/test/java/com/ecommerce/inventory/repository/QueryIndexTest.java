@@ -0,0 +1,77 @@
+package com.ecommerce.inventory.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs the Flyway migrations on H2 in MySQL mode and checks that EXPLAIN plans each hot repository
+ * query on the index meant for it. The SQL is the shape Hibernate generates, with literal values.
+ */
+class QueryIndexTest {
+
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:inventory;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).table("flyway_schema_history_inventory").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	static Stream<Arguments> hotQueries() {
+		return Stream.of(
+				arguments("findPage",
+						"select i.id from inventory i left join warehouses w on w.id = i.warehouse_id "
+								+ "order by i.created_at desc, i.id desc limit 20",
+						"idx_inventory_created_at_id"),
+				arguments("findPageAfter",
+						"select i.id from inventory i where i.created_at < timestamp '2024-01-15 10:00:00' "
+								+ "or (i.created_at = timestamp '2024-01-15 10:00:00' and i.id < 100) "
+								+ "order by i.created_at desc, i.id desc limit 20",
+						"idx_inventory_created_at_id"),
+				arguments("findBySku",
+						"select i.id from inventory i where i.sku = 'SKU-001'",
+						"idx_inventory_sku"),
+				arguments("StockMovementRepository.findPage",
+						"select sm.id from stock_movements sm order by sm.created_at desc, sm.id desc limit 20",
+						"idx_stock_movements_created_at_id"),
+				arguments("StockMovementRepository.findPageAfter",
+						"select sm.id from stock_movements sm where sm.created_at < timestamp '2024-01-15 10:00:00' "
+								+ "or (sm.created_at = timestamp '2024-01-15 10:00:00' and sm.id < 100) "
+								+ "order by sm.created_at desc, sm.id desc limit 20",
+						"idx_stock_movements_created_at_id"),
+				arguments("StockMovementRepository.findByDateRange",
+						"select sm.id from stock_movements sm where sm.created_at between timestamp '2024-01-01 00:00:00' "
+								+ "and timestamp '2024-02-01 00:00:00'",
+						"idx_stock_movements_created_at_id"),
+				arguments("StockMovementRepository.findByReferenceId",
+						"select sm.id from stock_movements sm where sm.reference_id = 'ORD-1'",
+						"idx_stock_movements_reference_id"),
+				arguments("StockMovementRepository.findByMovementType",
+						"select sm.id from stock_movements sm where sm.movement_type = 'IN'",
+						"idx_stock_movements_movement_type"),
+				arguments("StockMovementRepository.findByInventoryIdOrderByCreatedAtDesc",
+						"select sm.id from stock_movements sm where sm.inventory_id = 7 order by sm.created_at desc",
+						"idx_stock_movements_inventory_id_created_at"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("hotQueries")
+	void usesIndex(String query, String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+
+		assertThat(plan).as(query).contains("/* public." + index);
+	}
+
+}
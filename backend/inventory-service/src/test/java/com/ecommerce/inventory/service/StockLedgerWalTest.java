@@ -0,0 +1,112 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.MovementReason;
+import com.ecommerce.inventory.entity.MovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockLedgerWalTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsEntriesBackAcrossSegmentsInSequenceOrder() {
+		StockLedgerWal wal = new StockLedgerWal(directory, false);
+		wal.append(entry(1, "ORD-1", 7L));
+		wal.append(entry(2, null, null));
+		wal.seal();
+		wal.append(entry(3, "ORD-3", 7L));
+		wal.close();
+
+		List<StockLedgerEntry> entries = new StockLedgerWal(directory, false).readAll();
+
+		assertThat(entries).extracting(StockLedgerEntry::getSequence).containsExactly(1L, 2L, 3L);
+		assertThat(entries.get(0).getReferenceId()).isEqualTo("ORD-1");
+		assertThat(entries.get(0).getPerformedBy()).isEqualTo(7L);
+		assertThat(entries.get(1).getReferenceId()).isNull();
+		assertThat(entries.get(1).getPerformedBy()).isNull();
+	}
+
+	@Test
+	void skipsTornLastLine() throws IOException {
+		StockLedgerWal wal = new StockLedgerWal(directory, false);
+		wal.append(entry(1, "ORD-1", 7L));
+		wal.append(entry(2, "ORD-2", 7L));
+		wal.close();
+		// The process died while appending entry 3
+		appendToSegment("3\t100\t10\t-5\t0\t-5\tOUT\tSALE\t5\t20\t15\tORD-3\tno");
+
+		List<StockLedgerEntry> entries = new StockLedgerWal(directory, false).readAll();
+
+		assertThat(entries).extracting(StockLedgerEntry::getSequence).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void skipsTornLastLineThatStillHasEveryField() throws IOException {
+		StockLedgerWal wal = new StockLedgerWal(directory, false);
+		wal.append(entry(1, "ORD-1", 7L));
+		wal.close();
+		// Cut inside the last field: performedBy 42 would read back as 4
+		appendToSegment("2\t100\t10\t-5\t0\t-5\tOUT\tSALE\t5\t20\t15\tORD-2\t\t4");
+
+		List<StockLedgerEntry> entries = new StockLedgerWal(directory, false).readAll();
+
+		assertThat(entries).extracting(StockLedgerEntry::getSequence).containsExactly(1L);
+	}
+
+	@Test
+	void skipsTornMultiByteCharacter() throws IOException {
+		StockLedgerWal wal = new StockLedgerWal(directory, false);
+		wal.append(entry(1, "ORD-1", 7L));
+		wal.close();
+		byte[] note = "2\t100\t10\t-5\t0\t-5\tOUT\tSALE\t5\t20\t15\tORD-2\tcafé".getBytes(StandardCharsets.UTF_8);
+		Files.write(singleSegment(), Arrays.copyOf(note, note.length - 1), StandardOpenOption.APPEND);
+
+		List<StockLedgerEntry> entries = new StockLedgerWal(directory, false).readAll();
+
+		assertThat(entries).extracting(StockLedgerEntry::getSequence).containsExactly(1L);
+	}
+
+	@Test
+	void deleteSealedSegmentsKeepsTheOpenSegment() throws IOException {
+		StockLedgerWal wal = new StockLedgerWal(directory, false);
+		wal.append(entry(1, "ORD-1", 7L));
+		wal.seal();
+		wal.append(entry(2, "ORD-2", 7L));
+
+		wal.deleteSealedSegments();
+		wal.close();
+
+		assertThat(new StockLedgerWal(directory, false).readAll())
+				.extracting(StockLedgerEntry::getSequence).containsExactly(2L);
+	}
+
+	private void appendToSegment(String text) throws IOException {
+		Files.writeString(singleSegment(), text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+	}
+
+	private Path singleSegment() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			List<Path> segments = files.toList();
+			assertThat(segments).hasSize(1);
+			return segments.get(0);
+		}
+	}
+
+	private static StockLedgerEntry entry(long sequence, String referenceId, Long performedBy) {
+		return new StockLedgerEntry(sequence, 100L, 10L, -5, 0, -5, MovementType.OUT, MovementReason.SALE,
+				5, 20, 15, referenceId, null, performedBy);
+	}
+}
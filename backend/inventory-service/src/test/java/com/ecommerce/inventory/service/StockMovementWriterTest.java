@@ -0,0 +1,147 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.entity.Inventory;
+import com.ecommerce.inventory.entity.MovementReason;
+import com.ecommerce.inventory.entity.MovementType;
+import com.ecommerce.inventory.entity.StockMovement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the writer against the Flyway schema on H2 in MySQL mode, in both audit modes: movements
+ * recorded in a transaction are written only if it commits, in async mode by the writer thread and
+ * in outbox mode through stock_movement_outbox and the relay.
+ */
+class StockMovementWriterTest {
+
+	private static JdbcTemplate jdbcTemplate;
+	private static NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private static TransactionTemplate transactionTemplate;
+
+	private StockMovementWriter writer;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:stock-movement-writer;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).table("flyway_schema_history_inventory").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		jdbcTemplate.update("insert into inventory (id, product_id, product_name, sku, available_quantity, reserved_quantity, "
+				+ "total_quantity, reorder_level, reorder_quantity, status) values (1, 100, 'Phone', 'PH-1', 10, 0, 10, 1, 5, 'IN_STOCK')");
+	}
+
+	@BeforeEach
+	void clearMovements() {
+		jdbcTemplate.update("delete from stock_movements");
+		jdbcTemplate.update("delete from stock_movement_outbox");
+	}
+
+	@AfterEach
+	void stopWriter() throws InterruptedException {
+		if (writer != null) {
+			writer.stop();
+		}
+	}
+
+	@Test
+	void asyncModeWritesMovementsAfterCommit() throws InterruptedException {
+		writer = start("async");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			writer.record(movement("ORD-1"));
+			writer.record(movement("ORD-2"));
+			assertThat(count("stock_movements")).isZero();
+		});
+
+		assertThat(awaitCount("stock_movements", 2)).isEqualTo(2);
+		assertThat(count("stock_movement_outbox")).isZero();
+		assertThat(jdbcTemplate.queryForList("select reference_id from stock_movements order by id", String.class))
+				.containsExactly("ORD-1", "ORD-2");
+	}
+
+	@Test
+	void asyncModeDropsMovementsOfRolledBackTransaction() throws InterruptedException {
+		writer = start("async");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			writer.record(movement("ORD-1"));
+			status.setRollbackOnly();
+		});
+		writer.record(movement("ORD-2"));
+
+		assertThat(awaitCount("stock_movements", 1)).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select reference_id from stock_movements", String.class)).isEqualTo("ORD-2");
+	}
+
+	@Test
+	void outboxModeStoresMovementsWithTheTransactionAndRelaysThem() {
+		writer = start("outbox");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			writer.record(movement("ORD-1"));
+			writer.record(movement("ORD-2"));
+		});
+		transactionTemplate.executeWithoutResult(status -> {
+			writer.record(movement("ORD-3"));
+			status.setRollbackOnly();
+		});
+
+		assertThat(count("stock_movement_outbox")).isEqualTo(2);
+		assertThat(count("stock_movements")).isZero();
+
+		writer.relayOutbox();
+
+		assertThat(count("stock_movement_outbox")).isZero();
+		assertThat(jdbcTemplate.queryForList("select reference_id from stock_movements order by id", String.class))
+				.containsExactly("ORD-1", "ORD-2");
+	}
+
+	private static StockMovementWriter start(String mode) {
+		StockMovementWriter writer = new StockMovementWriter(jdbcTemplate, namedParameterJdbcTemplate, transactionTemplate,
+				new SimpleMeterRegistry(), mode, 500, 20, 100);
+		writer.start();
+		return writer;
+	}
+
+	private static StockMovement movement(String referenceId) {
+		Inventory inventory = new Inventory();
+		inventory.setId(1L);
+		StockMovement movement = new StockMovement();
+		movement.setInventory(inventory);
+		movement.setMovementType(MovementType.OUT);
+		movement.setReason(MovementReason.SALE);
+		movement.setQuantity(1);
+		movement.setPreviousQuantity(10);
+		movement.setNewQuantity(9);
+		movement.setReferenceId(referenceId);
+		return movement;
+	}
+
+	private static long count(String table) {
+		return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+	}
+
+	// The async writer flushes every 20 ms; give it a few seconds on a slow machine
+	private static long awaitCount(String table, long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		long count = count(table);
+		while (count < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+			count = count(table);
+		}
+		return count;
+	}
+}
@@ -1,11 +1,15 @@
 package com.ecommerce.order.client;
 
 import com.ecommerce.order.dto.InventoryResponseDTO;
+import com.ecommerce.order.dto.StockReservationRequestDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name = "inventory-service")
 public interface InventoryClient {
 
@@ -29,4 +33,13 @@ public interface InventoryClient {
     InventoryResponseDTO confirmReservation(@RequestParam Long productId,
                                             @RequestParam Integer quantity,
                                             @RequestParam String orderId);
+
+    @PostMapping("/api/inventory/reserve-batch")
+    List<InventoryResponseDTO> reserveStockBatch(@RequestBody StockReservationRequestDTO requestDTO);
+
+    @PostMapping("/api/inventory/release-batch")
+    List<InventoryResponseDTO> releaseReservedStockBatch(@RequestBody StockReservationRequestDTO requestDTO);
+
+    @PostMapping("/api/inventory/confirm-batch")
+    List<InventoryResponseDTO> confirmReservationBatch(@RequestBody StockReservationRequestDTO requestDTO);
 }
\ No newline at end of file
@@ -4,6 +4,10 @@ import com.ecommerce.order.dto.ProductResponseDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.Map;
 
 @FeignClient(name = "product-service")
 public interface ProductClient {
@@ -13,4 +17,7 @@ public interface ProductClient {
 
     @GetMapping("/api/products/sku/{sku}")
     ProductResponseDTO getProductBySku(@PathVariable String sku);
+
+    @GetMapping("/api/products/batch")
+    Map<Long, ProductResponseDTO> getProductsByIds(@RequestParam("ids") List<Long> ids);
 }
\ No newline at end of file
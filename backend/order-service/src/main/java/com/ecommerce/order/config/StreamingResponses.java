@@ -0,0 +1,19 @@
+package com.ecommerce.order.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+public final class StreamingResponses {
+
+    private StreamingResponses() {
+    }
+
+    /**
+     * A StreamingResponseBody is written as an async request, which is cut off after
+     * spring.mvc.async.request-timeout (30 seconds by default). Called from the handler, before the
+     * body is returned, this lifts the timeout for the current request only.
+     */
+    public static void disableTimeout(HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(-1L);
+    }
+}
@@ -110,6 +110,7 @@ public class OrderController {
 
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.config.StreamingResponses;
 import com.ecommerce.order.dto.*;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.service.OrderService;
@@ -120,12 +121,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -201,6 +205,21 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Get orders page by page",
+            description = "Retrieve orders newest first, one page at a time. Pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of orders retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<OrderResponseDTO>> getOrdersPage(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponseDTO<OrderResponseDTO> page = orderService.getOrdersPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(
             summary = "Get orders by user ID",
@@ -257,6 +276,25 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(
+            summary = "Export orders",
+            description = "Stream all orders created within the date range as newline-delimited JSON, one per line. Memory use stays constant however many rows are exported."
+    )
+    @ApiResponse(responseCode = "200", description = "Orders streamed as NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Start date, omit to export from the beginning", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date, omit to export up to now", example = "2024-12-31T23:59:59")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletRequest request) {
+        StreamingResponses.disableTimeout(request);
+        StreamingResponseBody body = out -> orderService.exportOrders(startDate, endDate, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"")
+                .body(body);
+    }
+
     @GetMapping("/email/{email}")
     @Operation(
             summary = "Get orders by customer email",
@@ -0,0 +1,21 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "id_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdSequence {
+
+    @Id
+    @Column(length = 50)
+    private String name; // e.g., ORDER_NUMBER
+
+    @Column(nullable = false)
+    private Long nextValue; // First value of the next block to hand out
+}
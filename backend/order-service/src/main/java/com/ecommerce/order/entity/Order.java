@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,7 +14,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "createdAt DESC, id DESC"),
+        @Index(name = "idx_orders_user_id_created_at", columnList = "userId, createdAt DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,7 +42,10 @@ public class Order {
     @Column(nullable = false)
     private String customerPhone;
 
+    // Queries without the orderItems entity graph (e.g. paged ones) load the items of up to
+    // 100 orders per IN (...) query instead of one query per order
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<OrderItem> orderItems = new ArrayList<>();
 
     @Column(nullable = false, precision = 10, scale = 2)
@@ -3,40 +3,97 @@ package com.ecommerce.order.repository;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Order reads are mapped with their items, so the unpaged ones fetch them in the same query
+    // (LEFT JOIN via the entity graph). Paged ones cannot, the row limit would cut orders apart;
+    // their items are batch fetched instead (see Order.orderItems). Listings only map the orders
+    // to DTOs, so they are also loaded read-only: no dirty-checking snapshots, never flushed.
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findAll();
+
+    @EntityGraph(attributePaths = "orderItems")
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserId(Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByStatus(OrderStatus status);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByPaymentStatus(PaymentStatus paymentStatus);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserIdAndStatus(Long userId, OrderStatus status);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
     List<Order> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                 @Param("endDate") LocalDateTime endDate);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC")
     List<Order> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @EntityGraph(attributePaths = "orderItems")
     @Query("SELECT o FROM Order o WHERE o.customerEmail = :email")
     List<Order> findByCustomerEmail(@Param("email") String email);
 
     boolean existsByOrderNumber(String orderNumber);
 
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    Long findMaxId();
+
+    // Numbers of one day sorted highest first; a longer sequence part is always the higher one
+    @Query("SELECT o.orderNumber FROM Order o WHERE o.orderNumber LIKE :prefix% " +
+           "ORDER BY LENGTH(o.orderNumber) DESC, o.orderNumber DESC")
+    List<String> findOrderNumbersWithPrefix(@Param("prefix") String prefix, Pageable pageable);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.userId = :userId AND o.status = :status")
     Long countByUserIdAndStatus(@Param("userId") Long userId, @Param("status") OrderStatus status);
-}
\ No newline at end of file
+
+    // Keyset pagination, newest first (see PageCursor)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPage(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Export stream: a fetch size of Integer.MIN_VALUE makes Connector/J stream the result set row by
+    // row instead of loading it whole. The connection runs no other statement until it is closed.
+    // Ordered by id so fetched rows of one order stay together.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.createdAt BETWEEN :startDate AND :endDate ORDER BY o.id")
+    Stream<Order> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                    @Param("endDate") LocalDateTime endDate);
+}
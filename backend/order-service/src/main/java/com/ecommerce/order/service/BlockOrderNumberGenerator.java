@@ -0,0 +1,113 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hi-lo order number generator. Each instance reserves a block of sequence values from the
+ * database and hands them out from memory, so generating a number is an atomic increment
+ * and only one in {@code blockSize} orders touches the id_sequences row.
+ *
+ * The counter restarts every day: each date has its own sequence row (ORDER_NUMBER_yyyyMMdd),
+ * and a block is only used for the date it was reserved for. The sequence part is padded to
+ * five digits and simply grows a digit past 99,999 orders in a day.
+ */
+@Service
+@Slf4j
+public class BlockOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final String SEQUENCE_PREFIX = "ORDER_NUMBER_";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final IdBlockAllocator idBlockAllocator;
+    private final OrderRepository orderRepository;
+    private final int blockSize;
+
+    private final AtomicReference<Block> currentBlock = new AtomicReference<>();
+    private final Object refillLock = new Object();
+
+    public BlockOrderNumberGenerator(IdBlockAllocator idBlockAllocator,
+                                     OrderRepository orderRepository,
+                                     @Value("${order.number.block-size:100}") int blockSize) {
+        this.idBlockAllocator = idBlockAllocator;
+        this.orderRepository = orderRepository;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        String datePart = LocalDate.now().format(DATE_FORMAT);
+        return prefix(datePart) + String.format("%05d", nextValue(datePart));
+    }
+
+    private long nextValue(String datePart) {
+        while (true) {
+            Block block = currentBlock.get();
+            if (block != null && block.datePart.equals(datePart)) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            synchronized (refillLock) {
+                // Another thread may already have replaced the exhausted or outdated block
+                if (currentBlock.get() == block) {
+                    currentBlock.set(allocateBlock(datePart));
+                }
+            }
+        }
+    }
+
+    private Block allocateBlock(String datePart) {
+        String sequenceName = SEQUENCE_PREFIX + datePart;
+        long start;
+        try {
+            start = idBlockAllocator.allocateBlock(sequenceName, blockSize, () -> initialValue(datePart));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            // Another instance created the day's sequence row at the same time (a duplicate key, or
+            // on MySQL a deadlock between the two gap locks taken by "for update"); it exists now
+            log.debug("Retrying {} block allocation after {}", sequenceName, e.getClass().getSimpleName());
+            start = idBlockAllocator.allocateBlock(sequenceName, blockSize, () -> initialValue(datePart));
+        }
+        log.info("Reserved order number block {} [{}, {})", sequenceName, start, start + blockSize);
+        return new Block(datePart, start, start + blockSize);
+    }
+
+    // Orders numbered before the day's row existed (earlier schemes, or a rolling deploy) are
+    // continued from rather than collided with
+    private long initialValue(String datePart) {
+        String prefix = prefix(datePart);
+        List<String> highest = orderRepository.findOrderNumbersWithPrefix(prefix, PageRequest.of(0, 1));
+        if (highest.isEmpty()) {
+            return 1;
+        }
+        return Long.parseLong(highest.get(0).substring(prefix.length())) + 1;
+    }
+
+    private static String prefix(String datePart) {
+        return "ORD-" + datePart + "-";
+    }
+
+    private static final class Block {
+        private final String datePart;
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(String datePart, long start, long end) {
+            this.datePart = datePart;
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.IdSequence;
+import com.ecommerce.order.repository.IdSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out blocks of consecutive values from a named row in id_sequences. The row is locked
+ * only for the duration of one short transaction per block, so instances sharing the table
+ * never receive overlapping blocks.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdBlockAllocator {
+
+    private final IdSequenceRepository idSequenceRepository;
+
+    /**
+     * Reserves {@code blockSize} values and returns the first one. If the sequence does not exist
+     * yet it is created starting at {@code initialValue}.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long allocateBlock(String name, int blockSize, LongSupplier initialValue) {
+        IdSequence sequence = idSequenceRepository.findByNameForUpdate(name)
+                .orElseGet(() -> idSequenceRepository.saveAndFlush(
+                        new IdSequence(name, initialValue.getAsLong())));
+
+        long blockStart = sequence.getNextValue();
+        sequence.setNextValue(blockStart + blockSize);
+        idSequenceRepository.save(sequence);
+
+        log.debug("Allocated {} block [{}, {})", name, blockStart, blockStart + blockSize);
+
+        return blockStart;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.ProductResponseDTO;
+import com.ecommerce.order.dto.UserResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class OrderLookupResult {
+
+    private final UserResponseDTO user;
+    private final Map<Long, ProductResponseDTO> products; // keyed by product ID
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.client.InventoryClient;
+import com.ecommerce.order.client.ProductClient;
+import com.ecommerce.order.client.UserClient;
+import com.ecommerce.order.dto.OrderItemRequestDTO;
+import com.ecommerce.order.dto.OrderRequestDTO;
+import com.ecommerce.order.dto.ProductResponseDTO;
+import com.ecommerce.order.dto.UserResponseDTO;
+import com.ecommerce.order.exception.InsufficientStockException;
+import com.ecommerce.order.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Fetches everything order creation needs from other services concurrently, so the
+ * total latency is that of the slowest call rather than the sum of all calls.
+ * Runs before the order transaction opens, so no DB connection is held while waiting.
+ */
+@Service
+@Slf4j
+public class OrderLookupService {
+
+    private final UserClient userClient;
+    private final ProductClient productClient;
+    private final InventoryClient inventoryClient;
+    private final Executor orderLookupExecutor;
+
+    public OrderLookupService(UserClient userClient,
+                              ProductClient productClient,
+                              InventoryClient inventoryClient,
+                              @Qualifier("orderLookupExecutor") Executor orderLookupExecutor) {
+        this.userClient = userClient;
+        this.productClient = productClient;
+        this.inventoryClient = inventoryClient;
+        this.orderLookupExecutor = orderLookupExecutor;
+    }
+
+    public OrderLookupResult fetchOrderData(OrderRequestDTO requestDTO) {
+        // Total quantity per product, so repeated lines are checked against stock together
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequestDTO itemDTO : requestDTO.getOrderItems()) {
+            quantities.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+        }
+
+        CompletableFuture<UserResponseDTO> userFuture = CompletableFuture.supplyAsync(
+                () -> userClient.getUserById(requestDTO.getUserId()), orderLookupExecutor);
+
+        CompletableFuture<Map<Long, ProductResponseDTO>> productsFuture = CompletableFuture.supplyAsync(
+                () -> productClient.getProductsByIds(new ArrayList<>(quantities.keySet())), orderLookupExecutor);
+
+        Map<Long, CompletableFuture<Boolean>> stockFutures = new HashMap<>();
+        quantities.forEach((productId, quantity) -> stockFutures.put(productId, CompletableFuture.supplyAsync(
+                () -> inventoryClient.checkStockAvailability(productId, quantity), orderLookupExecutor)));
+
+        UserResponseDTO user = join(userFuture);
+        Map<Long, ProductResponseDTO> products = join(productsFuture);
+
+        for (Long productId : quantities.keySet()) {
+            ProductResponseDTO product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            if (!Boolean.TRUE.equals(join(stockFutures.get(productId)))) {
+                throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
+            }
+        }
+
+        log.debug("Fetched user and {} products for order creation", products.size());
+
+        return new OrderLookupResult(user, products);
+    }
+
+    // Rethrow the original exception (e.g. FeignException) so the exception handlers still apply
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
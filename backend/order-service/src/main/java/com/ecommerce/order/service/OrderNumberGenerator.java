@@ -0,0 +1,10 @@
+package com.ecommerce.order.service;
+
+/**
+ * Produces unique order numbers in the ORD-yyyyMMdd-NNNNN format. Call it outside any
+ * transaction: reserving a new block of numbers runs in a transaction of its own.
+ */
+public interface OrderNumberGenerator {
+
+    String nextOrderNumber();
+}
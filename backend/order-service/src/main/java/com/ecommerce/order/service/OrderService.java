@@ -1,23 +1,29 @@
 package com.ecommerce.order.service;
 
 import com.ecommerce.order.client.InventoryClient;
-import com.ecommerce.order.client.ProductClient;
-import com.ecommerce.order.client.UserClient;
 import com.ecommerce.order.dto.*;
 import com.ecommerce.order.entity.*;
 import com.ecommerce.order.exception.*;
 import com.ecommerce.order.repository.OrderRepository;
 import com.ecommerce.order.repository.OrderStatusHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,33 +32,62 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderStatusHistoryRepository orderStatusHistoryRepository;
-    private final UserClient userClient;
-    private final ProductClient productClient;
     private final InventoryClient inventoryClient;
+    private final OrderLookupService orderLookupService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     private static final BigDecimal TAX_RATE = new BigDecimal("0.10"); // 10% tax
 
-    @Transactional
     public OrderResponseDTO createOrder(OrderRequestDTO requestDTO) {
-        // 1. Validate user exists
-        UserResponseDTO user = userClient.getUserById(requestDTO.getUserId());
+        // 1. Validate user, products and stock concurrently, before any DB connection is taken
+        OrderLookupResult lookup = orderLookupService.fetchOrderData(requestDTO);
+
+        // Taken before the transaction: refilling the number block needs a connection of its own,
+        // which must not be requested while this request already holds one
+        String orderNumber = orderNumberGenerator.nextOrderNumber();
+
+        // 2. Reserve stock for all items in one call. This is a remote call, so it is made before the
+        // transaction rather than while holding a DB connection, and undone if the order is not saved
+        StockReservationRequestDTO reservation = new StockReservationRequestDTO(orderNumber,
+                requestDTO.getOrderItems().stream()
+                        .map(item -> new StockReservationItemDTO(item.getProductId(), item.getQuantity()))
+                        .collect(Collectors.toList()));
+        try {
+            inventoryClient.reserveStockBatch(reservation);
+        } catch (Exception e) {
+            log.error("Failed to reserve stock for order: {}", orderNumber, e);
+            throw new InsufficientStockException("Failed to reserve stock: " + e.getMessage());
+        }
+
+        try {
+            return transactionTemplate.execute(status -> persistOrder(requestDTO, lookup, orderNumber));
+        } catch (RuntimeException e) {
+            log.error("Failed to save order {}, releasing its stock reservation", orderNumber, e);
+            releaseStockReservation(orderNumber, reservation);
+            throw e;
+        }
+    }
 
-        // 2. Create order
+    private OrderResponseDTO persistOrder(OrderRequestDTO requestDTO, OrderLookupResult lookup, String orderNumber) {
+        // 3. Create order
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumber);
         order.setUserId(requestDTO.getUserId());
         order.setCustomerName(requestDTO.getCustomerName());
         order.setCustomerEmail(requestDTO.getCustomerEmail());
         order.setCustomerPhone(requestDTO.getCustomerPhone());
 
-        // 3. Set shipping address
+        // 4. Set shipping address
         order.setShippingAddress(requestDTO.getShippingAddress());
         order.setShippingCity(requestDTO.getShippingCity());
         order.setShippingState(requestDTO.getShippingState());
         order.setShippingCountry(requestDTO.getShippingCountry());
         order.setShippingZipCode(requestDTO.getShippingZipCode());
 
-        // 4. Set billing address (default to shipping if not provided)
+        // 5. Set billing address (default to shipping if not provided)
         if (requestDTO.getBillingAddress() != null) {
             order.setBillingAddress(requestDTO.getBillingAddress());
             order.setBillingCity(requestDTO.getBillingCity());
@@ -70,20 +105,11 @@ public class OrderService {
         order.setPaymentMethod(requestDTO.getPaymentMethod());
         order.setNotes(requestDTO.getNotes());
 
-        // 5. Process order items
+        // 6. Process order items
         BigDecimal subtotal = BigDecimal.ZERO;
 
         for (OrderItemRequestDTO itemDTO : requestDTO.getOrderItems()) {
-            // Validate product exists
-            ProductResponseDTO product = productClient.getProductById(itemDTO.getProductId());
-
-            // Check stock availability
-            Boolean stockAvailable = inventoryClient.checkStockAvailability(
-                    itemDTO.getProductId(), itemDTO.getQuantity());
-
-            if (!stockAvailable) {
-                throw new InsufficientStockException("Insufficient stock for product: " + product.getName());
-            }
+            ProductResponseDTO product = lookup.getProducts().get(itemDTO.getProductId());
 
             // Create order item
             OrderItem orderItem = new OrderItem();
@@ -105,7 +131,7 @@ public class OrderService {
             subtotal = subtotal.add(itemTotal);
         }
 
-        // 6. Calculate totals
+        // 7. Calculate totals
         order.setSubtotal(subtotal);
 
         BigDecimal discountAmount = requestDTO.getDiscountAmount() != null ?
@@ -123,23 +149,9 @@ public class OrderService {
         BigDecimal totalAmount = subtotal.subtract(discountAmount).add(taxAmount).add(shippingFee);
         order.setTotalAmount(totalAmount);
 
-        // 7. Save order
+        // 8. Save order
         Order savedOrder = orderRepository.save(order);
 
-        // 8. Reserve stock for all items
-        try {
-            for (OrderItem item : savedOrder.getOrderItems()) {
-                inventoryClient.reserveStock(
-                        item.getProductId(),
-                        item.getQuantity(),
-                        savedOrder.getOrderNumber()
-                );
-            }
-        } catch (Exception e) {
-            log.error("Failed to reserve stock for order: {}", savedOrder.getOrderNumber(), e);
-            throw new InsufficientStockException("Failed to reserve stock: " + e.getMessage());
-        }
-
         // 9. Create status history
         createStatusHistory(savedOrder.getId(), null, OrderStatus.PENDING, "Order created", null);
 
@@ -160,36 +172,78 @@ public class OrderService {
         return mapToResponseDTO(order);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getAllOrders() {
         return orderRepository.findAll().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<OrderResponseDTO> getOrdersPage(String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findPage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            orders = orderRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return PageCursor.page(orders, pageSize, Order::getCreatedAt, Order::getId, this::mapToResponseDTO);
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByUserId(Long userId) {
         return orderRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByStatus(OrderStatus status) {
         return orderRepository.findByStatus(status).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByUserAndStatus(Long userId, OrderStatus status) {
         return orderRepository.findByUserIdAndStatus(userId, status).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return orderRepository.findByDateRange(startDate, endDate).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Writes the orders created in the range to the output stream as newline-delimited JSON.
+     * Rows are streamed from the database and detached once written, so memory use does not grow
+     * with the size of the export. Missing bounds default to everything up to now.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) throws IOException {
+        LocalDateTime from = startDate != null ? startDate : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+
+        try (Stream<Order> orders = orderRepository.streamByDateRange(from, to)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(mapToResponseDTO(order)));
+                out.write('\n');
+                entityManager.detach(order);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByEmail(String email) {
         return orderRepository.findByCustomerEmail(email).stream()
                 .map(this::mapToResponseDTO)
@@ -289,13 +343,7 @@ public class OrderService {
 
     private void confirmStockReservation(Order order) {
         try {
-            for (OrderItem item : order.getOrderItems()) {
-                inventoryClient.confirmReservation(
-                        item.getProductId(),
-                        item.getQuantity(),
-                        order.getOrderNumber()
-                );
-            }
+            inventoryClient.confirmReservationBatch(buildStockReservationRequest(order));
             log.info("Stock reservation confirmed for order: {}", order.getOrderNumber());
         } catch (Exception e) {
             log.error("Failed to confirm stock reservation for order: {}", order.getOrderNumber(), e);
@@ -304,21 +352,26 @@ public class OrderService {
     }
 
     private void releaseStockReservation(Order order) {
+        releaseStockReservation(order.getOrderNumber(), buildStockReservationRequest(order));
+    }
+
+    private void releaseStockReservation(String orderNumber, StockReservationRequestDTO reservation) {
         try {
-            for (OrderItem item : order.getOrderItems()) {
-                inventoryClient.releaseReservedStock(
-                        item.getProductId(),
-                        item.getQuantity(),
-                        order.getOrderNumber()
-                );
-            }
-            log.info("Stock reservation released for order: {}", order.getOrderNumber());
+            inventoryClient.releaseReservedStockBatch(reservation);
+            log.info("Stock reservation released for order: {}", orderNumber);
         } catch (Exception e) {
-            log.error("Failed to release stock reservation for order: {}", order.getOrderNumber(), e);
+            log.error("Failed to release stock reservation for order: {}", orderNumber, e);
             // Don't throw exception here, just log it
         }
     }
 
+    private StockReservationRequestDTO buildStockReservationRequest(Order order) {
+        List<StockReservationItemDTO> items = order.getOrderItems().stream()
+                .map(item -> new StockReservationItemDTO(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        return new StockReservationRequestDTO(order.getOrderNumber(), items);
+    }
+
     private void validateStatusTransition(OrderStatus from, OrderStatus to) {
         // Define valid transitions
         boolean isValidTransition = switch (from) {
@@ -348,14 +401,6 @@ public class OrderService {
         orderStatusHistoryRepository.save(history);
     }
 
-    private String generateOrderNumber() {
-        LocalDateTime now = LocalDateTime.now();
-        String datePart = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = orderRepository.count() + 1;
-        String sequencePart = String.format("%05d", count);
-        return "ORD-" + datePart + "-" + sequencePart;
-    }
-
     private OrderResponseDTO mapToResponseDTO(Order order) {
         OrderResponseDTO dto = new OrderResponseDTO();
         dto.setId(order.getId());
@@ -0,0 +1,74 @@
+-- Baseline of the tables owned by order-service, as Hibernate created them with ddl-auto: update.
+-- IF NOT EXISTS keeps this a no-op on databases that already have them (see spring.flyway in
+-- application.yml); parent tables come first for the foreign keys.
+
+create table if not exists id_sequences (
+    next_value bigint not null,
+    name varchar(50) not null,
+    primary key (name)
+) engine=InnoDB;
+
+create table if not exists orders (
+    discount_amount decimal(10,2) not null,
+    shipping_fee decimal(10,2) not null,
+    subtotal decimal(10,2) not null,
+    tax_amount decimal(10,2) not null,
+    total_amount decimal(10,2) not null,
+    cancelled_at datetime(6),
+    confirmed_at datetime(6),
+    created_at datetime(6),
+    delivered_at datetime(6),
+    id bigint not null auto_increment,
+    shipped_at datetime(6),
+    updated_at datetime(6),
+    user_id bigint not null,
+    billing_address varchar(255),
+    billing_city varchar(255),
+    billing_country varchar(255),
+    billing_state varchar(255),
+    billing_zip_code varchar(255),
+    cancellation_reason varchar(255),
+    customer_email varchar(255) not null,
+    customer_name varchar(255) not null,
+    customer_phone varchar(255) not null,
+    notes varchar(255),
+    order_number varchar(255) not null,
+    payment_transaction_id varchar(255),
+    shipping_address varchar(255) not null,
+    shipping_city varchar(255) not null,
+    shipping_country varchar(255) not null,
+    shipping_state varchar(255) not null,
+    shipping_zip_code varchar(255) not null,
+    payment_method enum ('CASH_ON_DELIVERY','CREDIT_CARD','DEBIT_CARD','NET_BANKING','PAYPAL','STRIPE','UPI','WALLET'),
+    payment_status enum ('COMPLETED','FAILED','PENDING','PROCESSING','REFUNDED') not null,
+    status enum ('CANCELLED','CONFIRMED','DELIVERED','PENDING','PROCESSING','REFUNDED','RETURNED','SHIPPED') not null,
+    primary key (id),
+    constraint UKnthkiu7pgmnqnu86i2jyoe2v7 unique (order_number)
+) engine=InnoDB;
+
+create table if not exists order_items (
+    discount_price decimal(10,2),
+    quantity integer not null,
+    total_price decimal(10,2) not null,
+    unit_price decimal(10,2) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    product_id bigint not null,
+    product_image_url varchar(255),
+    product_name varchar(255) not null,
+    sku varchar(255) not null,
+    primary key (id),
+    constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders (id)
+) engine=InnoDB;
+
+create table if not exists order_status_history (
+    changed_by bigint,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    remarks varchar(255),
+    new_status enum ('CANCELLED','CONFIRMED','DELIVERED','PENDING','PROCESSING','REFUNDED','RETURNED','SHIPPED') not null,
+    previous_status enum ('CANCELLED','CONFIRMED','DELIVERED','PENDING','PROCESSING','REFUNDED','RETURNED','SHIPPED'),
+    primary key (id)
+) engine=InnoDB;
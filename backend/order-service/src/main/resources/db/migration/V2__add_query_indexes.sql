@@ -0,0 +1,24 @@
+-- Indexes for the order-service repository queries that filtered or sorted on unindexed columns.
+-- V1 only creates missing tables, so every index an existing table needs is created here.
+-- Indexes walked for newest first listings are descending, so the scan runs forward in listing order.
+
+-- findPage, findPageAfter, findByDateRange, streamByDateRange
+create index idx_orders_created_at_id on orders (created_at desc, id desc);
+
+-- findByUserId, findByUserIdOrderByCreatedAtDesc
+create index idx_orders_user_id_created_at on orders (user_id, created_at desc);
+
+-- findByStatus
+create index idx_orders_status on orders (status);
+
+-- findByPaymentStatus
+create index idx_orders_payment_status on orders (payment_status);
+
+-- findByCustomerEmail
+create index idx_orders_customer_email on orders (customer_email);
+
+-- findByUserIdAndStatus, countByUserIdAndStatus
+create index idx_orders_user_id_status on orders (user_id, status);
+
+-- OrderStatusHistoryRepository.findByOrderIdOrderByCreatedAtDesc
+create index idx_order_status_history_order_id_created_at on order_status_history (order_id, created_at);
@@ -0,0 +1,74 @@
+package com.ecommerce.order.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs the Flyway migrations on H2 in MySQL mode and checks that EXPLAIN plans each hot repository
+ * query on the index meant for it. The SQL is the shape Hibernate generates, with literal values.
+ */
+class QueryIndexTest {
+
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:order;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).table("flyway_schema_history_order").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	static Stream<Arguments> hotQueries() {
+		return Stream.of(
+				arguments("findPage",
+						"select o.id from orders o order by o.created_at desc, o.id desc limit 20",
+						"idx_orders_created_at_id"),
+				arguments("findPageAfter",
+						"select o.id from orders o where o.created_at < timestamp '2024-01-15 10:00:00' "
+								+ "or (o.created_at = timestamp '2024-01-15 10:00:00' and o.id < 100) "
+								+ "order by o.created_at desc, o.id desc limit 20",
+						"idx_orders_created_at_id"),
+				arguments("findByDateRange",
+						"select o.id from orders o where o.created_at between timestamp '2024-01-01 00:00:00' "
+								+ "and timestamp '2024-02-01 00:00:00'",
+						"idx_orders_created_at_id"),
+				arguments("findByUserIdOrderByCreatedAtDesc",
+						"select o.id from orders o where o.user_id = 7 order by o.created_at desc",
+						"idx_orders_user_id_created_at"),
+				arguments("findByStatus",
+						"select o.id from orders o where o.status = 'PENDING'",
+						"idx_orders_status"),
+				arguments("findByPaymentStatus",
+						"select o.id from orders o where o.payment_status = 'PENDING'",
+						"idx_orders_payment_status"),
+				arguments("findByCustomerEmail",
+						"select o.id from orders o where o.customer_email = 'jane@example.com'",
+						"idx_orders_customer_email"),
+				arguments("countByUserIdAndStatus",
+						"select count(o.id) from orders o where o.user_id = 7 and o.status = 'DELIVERED'",
+						"idx_orders_user_id_status"),
+				arguments("OrderStatusHistoryRepository.findByOrderIdOrderByCreatedAtDesc",
+						"select h.id from order_status_history h where h.order_id = 7 order by h.created_at desc",
+						"idx_order_status_history_order_id_created_at"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("hotQueries")
+	void usesIndex(String query, String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+
+		assertThat(plan).as(query).contains("/* public." + index);
+	}
+
+}
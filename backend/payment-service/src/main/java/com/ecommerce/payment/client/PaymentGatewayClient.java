@@ -0,0 +1,17 @@
+package com.ecommerce.payment.client;
+
+import com.ecommerce.payment.dto.GatewayChargeRequest;
+import com.ecommerce.payment.dto.GatewayChargeResult;
+
+/**
+ * Adapter to the external payment gateways. Calls are slow remote requests, so they are made by
+ * the PaymentProcessor outside any database transaction.
+ */
+public interface PaymentGatewayClient {
+
+    /**
+     * Charges the payment. A declined charge is returned as an unsuccessful result; exceptions
+     * mean the gateway could not be reached or answered with an error.
+     */
+    GatewayChargeResult charge(GatewayChargeRequest request);
+}
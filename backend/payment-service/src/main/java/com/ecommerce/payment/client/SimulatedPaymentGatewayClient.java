@@ -0,0 +1,68 @@
+package com.ecommerce.payment.client;
+
+import com.ecommerce.payment.dto.GatewayChargeRequest;
+import com.ecommerce.payment.dto.GatewayChargeResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stands in for Stripe, Razorpay and PayPal: approves a share of the charges after a fixed latency.
+// Like the real gateways it treats the reference as an idempotency key: a charge submitted again
+// with a reference it has already settled gets the first result back instead of a second charge.
+@Component
+@Slf4j
+public class SimulatedPaymentGatewayClient implements PaymentGatewayClient {
+
+    private final long latencyMs;
+    private final int successRate;
+    private final Map<String, GatewayChargeResult> settled;
+
+    public SimulatedPaymentGatewayClient(@Value("${payment.gateway.simulated.latency-ms:200}") long latencyMs,
+                                         @Value("${payment.gateway.simulated.success-rate:90}") int successRate,
+                                         @Value("${payment.gateway.simulated.remembered-charges:10000}") int rememberedCharges) {
+        this.latencyMs = latencyMs;
+        this.successRate = successRate;
+        this.settled = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GatewayChargeResult> eldest) {
+                return size() > rememberedCharges;
+            }
+        });
+    }
+
+    @Override
+    public GatewayChargeResult charge(GatewayChargeRequest request) {
+        GatewayChargeResult previous = settled.get(request.getReference());
+        if (previous != null) {
+            log.debug("{} already settled charge {}, returning its result", request.getGateway(), request.getReference());
+            return previous;
+        }
+
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + request.getGateway());
+            }
+        }
+
+        GatewayChargeResult result;
+        if (ThreadLocalRandom.current().nextInt(100) < successRate) {
+            log.debug("{} approved charge {}", request.getGateway(), request.getReference());
+            result = new GatewayChargeResult(true, "GW-" + UUID.randomUUID(), "SUCCESS", null);
+        } else {
+            log.debug("{} declined charge {}", request.getGateway(), request.getReference());
+            result = new GatewayChargeResult(false, null, "FAILED", "Insufficient funds / Card declined");
+        }
+        // Two submissions of the same reference racing each other both get whichever settled first
+        GatewayChargeResult first = settled.putIfAbsent(request.getReference(), result);
+        return first != null ? first : result;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.payment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Bounded pool for gateway calls. Workers hold no database connection while they wait on the
+    // gateway, so it can be much larger than the JDBC pool.
+    @Bean(name = "paymentGatewayExecutor")
+    public ThreadPoolTaskExecutor paymentGatewayExecutor(
+            @Value("${payment.gateway.max-concurrency:64}") int maxConcurrency,
+            @Value("${payment.gateway.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-gateway-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs bulk refund jobs, one thread per job; a job that finds no free thread is rejected
+    @Bean(name = "refundJobExecutor")
+    public ThreadPoolTaskExecutor refundJobExecutor(@Value("${payment.refund-job.max-jobs:2}") int maxJobs) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxJobs);
+        executor.setMaxPoolSize(maxJobs);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("refund-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Processes the refunds of all running jobs; when it is busy the job thread runs the work itself
+    @Bean(name = "refundWorkerExecutor")
+    public ThreadPoolTaskExecutor refundWorkerExecutor(@Value("${payment.refund-job.max-concurrency:8}") int maxConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(maxConcurrency * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("refund-worker-");
+        executor.initialize();
+        return executor;
+    }
+}
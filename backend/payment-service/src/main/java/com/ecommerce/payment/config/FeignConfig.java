@@ -0,0 +1,16 @@
+package com.ecommerce.payment.config;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignConfig {
+
+    // Marks calls to other services as internal, e.g. so product-service does not count them as product views
+    @Bean
+    public RequestInterceptor callerServiceHeader(@Value("${spring.application.name}") String applicationName) {
+        return template -> template.header("X-Caller-Service", applicationName);
+    }
+}
@@ -1,8 +1,11 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.payment.config.StreamingResponses;
+import com.ecommerce.payment.dto.CursorPageResponseDTO;
 import com.ecommerce.payment.dto.PaymentRequestDTO;
 import com.ecommerce.payment.dto.PaymentResponseDTO;
 import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.service.IdempotencyService;
 import com.ecommerce.payment.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,12 +15,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,11 +35,12 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @Operation(
             summary = "Create a new payment",
-            description = "Initialize a new payment transaction for an order. Creates payment record with method details (credit card, PayPal, COD, etc.)"
+            description = "Initialize a new payment transaction for an order. Creates payment record with method details (credit card, PayPal, COD, etc.). Non-COD payments are returned as PROCESSING and charged through the gateway asynchronously."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -51,25 +58,31 @@ public class PaymentController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Payment already exists for this order"
+                    description = "Payment already exists for this order, or a request with the same Idempotency-Key is still being processed"
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Idempotency-Key was already used for a different request"
             )
     })
     public ResponseEntity<PaymentResponseDTO> createPayment(
             @Parameter(description = "Payment details including order ID, amount, and payment method", required = true)
-            @Valid @RequestBody PaymentRequestDTO requestDTO) {
-        PaymentResponseDTO responseDTO = paymentService.createPayment(requestDTO);
-        return new ResponseEntity<>(responseDTO, HttpStatus.CREATED);
+            @Valid @RequestBody PaymentRequestDTO requestDTO,
+            @Parameter(description = "Client-chosen key that makes retries of this request return the first response instead of creating again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("payments", idempotencyKey, requestDTO, PaymentResponseDTO.class,
+                () -> new ResponseEntity<>(paymentService.createPayment(requestDTO), HttpStatus.CREATED));
     }
 
     @PostMapping("/{id}/process")
     @Operation(
             summary = "Process a payment",
-            description = "Process payment through the configured payment gateway. Handles authorization, capture, and status updates. Returns transaction ID and status."
+            description = "Submit a PENDING payment to the configured payment gateway. The charge runs asynchronously: the payment is returned as PROCESSING and moves to COMPLETED or FAILED once the gateway answers."
     )
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Payment processed successfully",
+                    responseCode = "202",
+                    description = "Payment submitted to the gateway",
                     content = @Content(schema = @Schema(implementation = PaymentResponseDTO.class))
             ),
             @ApiResponse(
@@ -79,17 +92,13 @@ public class PaymentController {
             @ApiResponse(
                     responseCode = "404",
                     description = "Payment not found with given ID"
-            ),
-            @ApiResponse(
-                    responseCode = "502",
-                    description = "Payment gateway error or transaction declined"
             )
     })
     public ResponseEntity<PaymentResponseDTO> processPayment(
             @Parameter(description = "Payment ID", example = "1", required = true)
             @PathVariable Long id) {
         PaymentResponseDTO responseDTO = paymentService.processPayment(id);
-        return ResponseEntity.ok(responseDTO);
+        return ResponseEntity.accepted().body(responseDTO);
     }
 
     @GetMapping("/{id}")
@@ -179,6 +188,21 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Get payments page by page",
+            description = "Retrieve payments newest first, one page at a time. Pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of payments retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<PaymentResponseDTO>> getPaymentsPage(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponseDTO<PaymentResponseDTO> page = paymentService.getPaymentsPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(
             summary = "Get payments by user ID",
@@ -241,6 +265,25 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(
+            summary = "Export payments",
+            description = "Stream all payments created within the date range as newline-delimited JSON, one per line. Memory use stays constant however many rows are exported."
+    )
+    @ApiResponse(responseCode = "200", description = "Payments streamed as NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @Parameter(description = "Start date, omit to export from the beginning", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date, omit to export up to now", example = "2024-12-31T23:59:59")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletRequest request) {
+        StreamingResponses.disableTimeout(request);
+        StreamingResponseBody body = out -> paymentService.exportPayments(startDate, endDate, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments.ndjson\"")
+                .body(body);
+    }
+
     @PostMapping("/{id}/confirm-cod")
     @Operation(
             summary = "Confirm Cash on Delivery payment",
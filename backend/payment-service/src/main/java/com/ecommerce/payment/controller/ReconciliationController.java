@@ -0,0 +1,58 @@
+package com.ecommerce.payment.controller;
+
+import com.ecommerce.payment.config.StreamingResponses;
+import com.ecommerce.payment.exception.InvalidSettlementFileException;
+import com.ecommerce.payment.service.ReconciliationService;
+import com.ecommerce.payment.service.ReconciliationService.SettlementFile;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/payments/reconciliation")
+@RequiredArgsConstructor
+@Tag(name = "Payment Reconciliation", description = "APIs for reconciling payment transactions against gateway settlement files")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping(consumes = {"text/csv", "text/plain"}, produces = "application/x-ndjson")
+    @Operation(
+            summary = "Reconcile a settlement file",
+            description = "Compare a gateway settlement CSV, sorted by gateway_transaction_id, with the payment transactions created within the date range. " +
+                    "The file is read from the request body as it arrives and mismatches are streamed back as newline-delimited JSON, followed by a SUMMARY line. Memory use stays constant however large the file is."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mismatches and summary streamed as NDJSON"),
+            @ApiResponse(responseCode = "400", description = "Settlement file is empty or its header lacks a required column, or the date range is invalid")
+    })
+    public ResponseEntity<StreamingResponseBody> reconcile(
+            @Parameter(description = "Only reconcile transactions created at or after this time, omit to start from the beginning", example = "2024-01-15T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "Only reconcile transactions created before this time, omit to reconcile up to now", example = "2024-01-16T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletRequest request) throws IOException {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidSettlementFileException("startDate must not be after endDate");
+        }
+        StreamingResponses.disableTimeout(request);
+        // The body is not buffered; the service reads it while writing the response
+        SettlementFile file = reconciliationService.openSettlementFile(request.getInputStream());
+        StreamingResponseBody body = out -> reconciliationService.reconcile(file, startDate, endDate, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reconciliation.ndjson\"")
+                .body(body);
+    }
+}
@@ -1,8 +1,12 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.payment.dto.RefundJobRequestDTO;
+import com.ecommerce.payment.dto.RefundJobResponseDTO;
 import com.ecommerce.payment.dto.RefundRequestDTO;
 import com.ecommerce.payment.dto.RefundResponseDTO;
 import com.ecommerce.payment.entity.RefundStatus;
+import com.ecommerce.payment.service.IdempotencyService;
+import com.ecommerce.payment.service.RefundJobService;
 import com.ecommerce.payment.service.RefundService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -27,6 +31,8 @@ import java.util.List;
 public class RefundController {
 
     private final RefundService refundService;
+    private final IdempotencyService idempotencyService;
+    private final RefundJobService refundJobService;
 
     @PostMapping
     @Operation(
@@ -49,14 +55,20 @@ public class RefundController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Payment already fully refunded or refund not allowed for payment status"
+                    description = "Payment already fully refunded or refund not allowed for payment status, or a request with the same Idempotency-Key is still being processed"
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Idempotency-Key was already used for a different request"
             )
     })
     public ResponseEntity<RefundResponseDTO> createRefund(
             @Parameter(description = "Refund details including payment ID, amount, and reason", required = true)
-            @Valid @RequestBody RefundRequestDTO requestDTO) {
-        RefundResponseDTO responseDTO = refundService.createRefund(requestDTO);
-        return new ResponseEntity<>(responseDTO, HttpStatus.CREATED);
+            @Valid @RequestBody RefundRequestDTO requestDTO,
+            @Parameter(description = "Client-chosen key that makes retries of this request return the first response instead of creating again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("refunds", idempotencyKey, requestDTO, RefundResponseDTO.class,
+                () -> new ResponseEntity<>(refundService.createRefund(requestDTO), HttpStatus.CREATED));
     }
 
     @PostMapping("/{id}/process")
@@ -239,6 +251,103 @@ public class RefundController {
         refundService.cancelRefund(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/jobs")
+    @Operation(
+            summary = "Start a bulk refund job",
+            description = "Process every PENDING refund matching the filter (order IDs, creation date range; absent fields do not filter) in the background. Refunds are processed in parallel chunks and progress is checkpointed after each chunk."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Refund job started",
+                    content = @Content(schema = @Schema(implementation = RefundJobResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid date range, or too many refund jobs running"
+            )
+    })
+    public ResponseEntity<RefundJobResponseDTO> startRefundJob(
+            @Parameter(description = "Filter selecting the PENDING refunds to process", required = true)
+            @RequestBody RefundJobRequestDTO requestDTO) {
+        RefundJobResponseDTO responseDTO = refundJobService.startJob(requestDTO);
+        return ResponseEntity.accepted().body(responseDTO);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(
+            summary = "Get bulk refund job status",
+            description = "Returns the job status, its checkpoint, succeeded/failed/skipped counts and throughput in refunds per second"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Refund job found",
+                    content = @Content(schema = @Schema(implementation = RefundJobResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Refund job not found"
+            )
+    })
+    public ResponseEntity<RefundJobResponseDTO> getRefundJob(
+            @Parameter(description = "Refund job ID", example = "1", required = true)
+            @PathVariable Long jobId) {
+        return ResponseEntity.ok(refundJobService.getJob(jobId));
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    @Operation(
+            summary = "Cancel a bulk refund job",
+            description = "Stops a running job after its current chunk. Refunds already processed stay processed; the job can be resumed later."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Refund job cancelled",
+                    content = @Content(schema = @Schema(implementation = RefundJobResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Refund job is not running"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Refund job not found"
+            )
+    })
+    public ResponseEntity<RefundJobResponseDTO> cancelRefundJob(
+            @Parameter(description = "Refund job ID", example = "1", required = true)
+            @PathVariable Long jobId) {
+        return ResponseEntity.ok(refundJobService.cancelJob(jobId));
+    }
+
+    @PostMapping("/jobs/{jobId}/resume")
+    @Operation(
+            summary = "Resume a bulk refund job",
+            description = "Continues a cancelled, failed or interrupted job from its last checkpoint"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Refund job resumed",
+                    content = @Content(schema = @Schema(implementation = RefundJobResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Refund job is completed or still running"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Refund job not found"
+            )
+    })
+    public ResponseEntity<RefundJobResponseDTO> resumeRefundJob(
+            @Parameter(description = "Refund job ID", example = "1", required = true)
+            @PathVariable Long jobId) {
+        return ResponseEntity.accepted().body(refundJobService.resumeJob(jobId));
+    }
 }
 
 
@@ -0,0 +1,21 @@
+package com.ecommerce.payment.dto;
+
+import com.ecommerce.payment.entity.PaymentGateway;
+import com.ecommerce.payment.entity.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayChargeRequest {
+    private Long paymentId;
+    private String reference; // Id of the CHARGE transaction, sent as the gateway's idempotency reference
+    private PaymentGateway gateway;
+    private PaymentMethod paymentMethod;
+    private BigDecimal amount;
+    private String currency;
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayChargeResult {
+    private boolean success;
+    private String gatewayTransactionId; // Null when declined
+    private String gatewayResponse;
+    private String failureReason; // Null when approved
+}
@@ -39,6 +39,7 @@ public class PaymentResponseDTO {
     private LocalDateTime paidAt;
     private LocalDateTime failedAt;
     private LocalDateTime refundedAt;
+    private BigDecimal refundedTotal;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<PaymentTransactionResponseDTO> transactions;
@@ -0,0 +1,32 @@
+package com.ecommerce.payment.dto;
+
+import com.ecommerce.payment.entity.TransactionStatus;
+import com.ecommerce.payment.entity.TransactionType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One line of the reconciliation report; fields that do not apply to the type are left out
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReconciliationMismatchDTO {
+    // MISSING_IN_LEDGER, MISSING_IN_SETTLEMENT, AMOUNT_MISMATCH, CURRENCY_MISMATCH, STATUS_MISMATCH,
+    // DUPLICATE_IN_SETTLEMENT, DUPLICATE_IN_LEDGER or INVALID_LINE
+    private String type;
+    private String gatewayTransactionId;
+    private Long lineNumber; // Line of the settlement file
+    private BigDecimal settlementAmount;
+    private String settlementCurrency;
+    private String transactionId;
+    private String paymentId;
+    private TransactionType transactionType;
+    private TransactionStatus ledgerStatus;
+    private BigDecimal ledgerAmount;
+    private String ledgerCurrency;
+    private String message;
+}
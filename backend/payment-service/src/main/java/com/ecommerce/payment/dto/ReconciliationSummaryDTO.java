@@ -0,0 +1,20 @@
+package com.ecommerce.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last line of the reconciliation report
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationSummaryDTO {
+    private String type = "SUMMARY";
+    private Boolean completed; // False if the run stopped early, see error
+    private String error;
+    private Long settlementLines;
+    private Long ledgerEntries;
+    private Long matched;
+    private Long mismatches;
+    private Long elapsedMs;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Selects the PENDING refunds a bulk refund job processes; absent fields do not filter, but at
+// least one of them must be set
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundJobRequestDTO {
+    private List<Long> orderIds;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+}
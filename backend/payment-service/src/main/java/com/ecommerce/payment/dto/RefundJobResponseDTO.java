@@ -0,0 +1,31 @@
+package com.ecommerce.payment.dto;
+
+import com.ecommerce.payment.entity.RefundJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundJobResponseDTO {
+    private Long id;
+    private RefundJobStatus status;
+    private List<Long> orderIds;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private Long totalRefunds;
+    private Long processedCount;
+    private Long succeededCount;
+    private Long failedCount;
+    private Long skippedCount;
+    private Long lastRefundId;
+    private Double refundsPerSecond; // Processed refunds per second of processing time
+    private String lastError;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_scope_key", columnNames = {"scope", "idempotencyKey"}),
+        indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String scope; // Endpoint the key was used on, e.g. payments or refunds
+
+    @Column(nullable = false)
+    private String idempotencyKey; // Value of the Idempotency-Key header
+
+    @Column(nullable = false, length = 64)
+    private String requestHash; // SHA-256 of the request body, hex
+
+    @Column(nullable = false)
+    private Boolean completed = false; // False while the first request is still running
+
+    private LocalDateTime lockedUntil; // Lease of the running request; once past, a retry may take the key over
+
+    private Integer responseStatus;
+
+    @Column(length = 65535)
+    private String responseBody; // JSON of the response to replay
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,7 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = @Index(name = "idx_payments_created_at_id", columnList = "createdAt DESC, id DESC"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,6 +50,9 @@ public class Payment {
     @Column(nullable = false)
     private PaymentStatus status = PaymentStatus.PENDING;
 
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal refundedTotal = BigDecimal.ZERO; // Sum of completed refunds, kept up to date by RefundService
+
     @Enumerated(EnumType.STRING)
     private PaymentGateway paymentGateway;
 
@@ -56,7 +60,9 @@ public class Payment {
 
     private String gatewayResponse; // Raw response from gateway
 
+    // Listings load the transactions of up to 100 payments per IN (...) query instead of one query per payment
     @OneToMany(mappedBy = "payment", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<PaymentTransaction> transactions = new ArrayList<>();
 
     // Card details (last 4 digits for display)
@@ -91,6 +97,9 @@ public class Payment {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version; // Optimistic lock, so concurrent refunds cannot both add to refundedTotal
+
     // Helper method to add transaction
     public void addTransaction(PaymentTransaction transaction) {
         transactions.add(transaction);
@@ -0,0 +1,67 @@
+package com.ecommerce.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refund_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundJob {
+
+    public static final int MAX_ORDER_IDS_LENGTH = 65535;
+    public static final int MAX_LAST_ERROR_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Filter: PENDING refunds of these orders (comma separated, null for all orders) created in the range
+    @Column(length = RefundJob.MAX_ORDER_IDS_LENGTH)
+    private String orderIds;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RefundJobStatus status = RefundJobStatus.RUNNING;
+
+    @Column(nullable = false)
+    private Long lastRefundId = 0L; // Checkpoint: refunds up to this id have been handled
+
+    @Column(nullable = false)
+    private Long totalRefunds = 0L; // Refunds matching the filter when the job was started
+
+    @Column(nullable = false)
+    private Long processedCount = 0L;
+
+    @Column(nullable = false)
+    private Long succeededCount = 0L;
+
+    @Column(nullable = false)
+    private Long failedCount = 0L; // Declined by the gateway
+
+    @Column(nullable = false)
+    private Long skippedCount = 0L; // Left PENDING, e.g. amount no longer available
+
+    @Column(nullable = false)
+    private Long activeMillis = 0L; // Time spent processing, excluding pauses
+
+    @Column(length = RefundJob.MAX_LAST_ERROR_LENGTH)
+    private String lastError; // Cut to the column length, exception messages can be far longer
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt; // Set on every checkpoint
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.payment.entity;
+
+public enum RefundJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.payment.exception;
+
+public class InvalidRefundJobException extends RuntimeException {
+    public InvalidRefundJobException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.payment.exception;
+
+public class InvalidSettlementFileException extends RuntimeException {
+    public InvalidSettlementFileException(String message) {
+        super(message);
+    }
+}
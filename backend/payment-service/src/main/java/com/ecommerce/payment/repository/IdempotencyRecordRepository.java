@@ -0,0 +1,48 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    // The lease the caller holds or read acts as a token: each statement below only matches while the
+    // key is still in progress under exactly that lease, so at most one request ever owns the key
+
+    // Takes over a key whose lease has run out
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedUntil = :lockedUntil " +
+            "WHERE r.id = :id AND r.completed = false AND r.lockedUntil = :expiredLease")
+    int takeOver(@Param("id") Long id, @Param("expiredLease") LocalDateTime expiredLease,
+                 @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    // Joins the caller's transaction, so the response is stored if and only if the business write commits
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.completed = true, r.responseStatus = :responseStatus, " +
+            "r.responseBody = :responseBody, r.lockedUntil = NULL " +
+            "WHERE r.id = :id AND r.completed = false AND r.lockedUntil = :lockedUntil")
+    int complete(@Param("id") Long id, @Param("lockedUntil") LocalDateTime lockedUntil,
+                 @Param("responseStatus") Integer responseStatus, @Param("responseBody") String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.completed = false AND r.lockedUntil = :lockedUntil")
+    int release(@Param("id") Long id, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
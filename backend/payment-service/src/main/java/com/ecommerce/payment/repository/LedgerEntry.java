@@ -0,0 +1,16 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.entity.TransactionStatus;
+import com.ecommerce.payment.entity.TransactionType;
+
+import java.math.BigDecimal;
+
+// One payment transaction as reconciliation compares it with a settlement file line
+public record LedgerEntry(String gatewayTransactionId,
+                          String transactionId,
+                          String paymentId,
+                          TransactionType transactionType,
+                          TransactionStatus status,
+                          BigDecimal amount,
+                          String currency) {
+}
@@ -2,18 +2,44 @@ package com.ecommerce.payment.repository;
 
 import com.ecommerce.payment.entity.Payment;
 import com.ecommerce.payment.entity.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
+    // Listings only map the payments to DTOs, so they are loaded read-only: Hibernate keeps no
+    // dirty-checking snapshot of them and never flushes them
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Payment> findAll();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    // Claims a stalled PROCESSING payment for resubmission: only the instance whose update matched
+    // submits it again, and the new updatedAt keeps the others off it until it stalls again
+    @Modifying
+    @Query("UPDATE Payment p SET p.updatedAt = :now WHERE p.id = :id " +
+            "AND p.status = com.ecommerce.payment.entity.PaymentStatus.PROCESSING AND p.updatedAt < :cutoff")
+    int claimStalled(@Param("id") Long id, @Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
     Optional<Payment> findByPaymentId(String paymentId);
 
     Optional<Payment> findByOrderId(Long orderId);
@@ -22,18 +48,39 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByUserId(Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<Payment> findByStatus(PaymentStatus status);
 
     List<Payment> findByUserIdAndStatus(Long userId, PaymentStatus status);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate")
     List<Payment> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                   @Param("endDate") LocalDateTime endDate);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT p FROM Payment p WHERE p.userId = :userId ORDER BY p.createdAt DESC")
     List<Payment> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
 
     boolean existsByPaymentId(String paymentId);
 
     boolean existsByOrderId(Long orderId);
-}
\ No newline at end of file
+
+    // Keyset pagination, newest first (see PageCursor)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPage(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Payment p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Export stream: a fetch size of Integer.MIN_VALUE makes Connector/J stream the result set row by
+    // row instead of loading it whole. The connection runs no other statement until it is closed.
+    // Ordered by id so fetched rows of one payment stay together.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.transactions WHERE p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.id")
+    Stream<Payment> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate);
+}
@@ -3,13 +3,18 @@ package com.ecommerce.payment.repository;
 import com.ecommerce.payment.entity.PaymentTransaction;
 import com.ecommerce.payment.entity.TransactionStatus;
 import com.ecommerce.payment.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, Long> {
@@ -26,4 +31,22 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     List<PaymentTransaction> findByPaymentIdOrderByCreatedAtDesc(@Param("paymentId") Long paymentId);
 
     boolean existsByTransactionId(String transactionId);
-}
\ No newline at end of file
+
+    // Pending charges of payments that have been PROCESSING since before the cutoff (see PaymentProcessor)
+    @Query("SELECT pt FROM PaymentTransaction pt JOIN FETCH pt.payment p " +
+            "WHERE p.status = com.ecommerce.payment.entity.PaymentStatus.PROCESSING AND p.updatedAt < :cutoff " +
+            "AND pt.transactionType = com.ecommerce.payment.entity.TransactionType.CHARGE " +
+            "AND pt.status = com.ecommerce.payment.entity.TransactionStatus.PENDING")
+    List<PaymentTransaction> findStalledCharges(@Param("cutoff") LocalDateTime cutoff);
+
+    // Reconciliation stream, read row by row (see PaymentRepository#streamByDateRange). The column has
+    // a binary collation, so rows come in the order String#compareTo expects.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.ecommerce.payment.repository.LedgerEntry(pt.gatewayTransactionId, pt.transactionId, " +
+            "p.paymentId, pt.transactionType, pt.status, pt.amount, p.currency) " +
+            "FROM PaymentTransaction pt JOIN pt.payment p " +
+            "WHERE pt.gatewayTransactionId IS NOT NULL AND pt.createdAt >= :from AND pt.createdAt < :to " +
+            "ORDER BY pt.gatewayTransactionId")
+    Stream<LedgerEntry> streamLedgerByGatewayTransactionId(@Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.entity.RefundJob;
+import com.ecommerce.payment.entity.RefundJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RefundJobRepository extends JpaRepository<RefundJob, Long> {
+
+    // Jobs are updated with single statements that leave the status alone, so a cancel from another
+    // instance is never overwritten by the running job
+
+    @Query("SELECT j.status FROM RefundJob j WHERE j.id = :id")
+    RefundJobStatus findStatusById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefundJob j SET j.lastRefundId = :lastRefundId, " +
+            "j.processedCount = j.processedCount + :succeeded + :failed + :skipped, " +
+            "j.succeededCount = j.succeededCount + :succeeded, j.failedCount = j.failedCount + :failed, " +
+            "j.skippedCount = j.skippedCount + :skipped, j.activeMillis = j.activeMillis + :millis, " +
+            "j.lastError = COALESCE(:lastError, j.lastError), j.updatedAt = :now WHERE j.id = :id")
+    int checkpoint(@Param("id") Long id, @Param("lastRefundId") Long lastRefundId,
+                   @Param("succeeded") long succeeded, @Param("failed") long failed, @Param("skipped") long skipped,
+                   @Param("millis") long millis, @Param("lastError") String lastError, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefundJob j SET j.status = :to, j.finishedAt = :now, j.updatedAt = :now, " +
+            "j.lastError = COALESCE(:lastError, j.lastError) WHERE j.id = :id AND j.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") RefundJobStatus from, @Param("to") RefundJobStatus to,
+                     @Param("lastError") String lastError, @Param("now") LocalDateTime now);
+
+    // Only matches the state the caller read, so two concurrent resumes cannot both succeed
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefundJob j SET j.status = com.ecommerce.payment.entity.RefundJobStatus.RUNNING, " +
+            "j.finishedAt = NULL, j.updatedAt = :now WHERE j.id = :id AND j.status = :status AND j.updatedAt = :updatedAt")
+    int resume(@Param("id") Long id, @Param("status") RefundJobStatus status, @Param("updatedAt") LocalDateTime updatedAt,
+               @Param("now") LocalDateTime now);
+}
@@ -2,7 +2,10 @@ package com.ecommerce.payment.repository;
 
 import com.ecommerce.payment.entity.Refund;
 import com.ecommerce.payment.entity.RefundStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,10 +14,17 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RefundRepository extends JpaRepository<Refund, Long> {
+public interface RefundRepository extends JpaRepository<Refund, Long>, JpaSpecificationExecutor<Refund> {
 
     Optional<Refund> findByRefundId(String refundId);
 
+    @Query("SELECT r.paymentId FROM Refund r WHERE r.id = :id")
+    Optional<Long> findPaymentIdById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Refund r WHERE r.id = :id")
+    Optional<Refund> findByIdForUpdate(@Param("id") Long id);
+
     List<Refund> findByPaymentId(Long paymentId);
 
     List<Refund> findByOrderId(Long orderId);
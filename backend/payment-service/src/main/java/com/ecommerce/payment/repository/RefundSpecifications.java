@@ -0,0 +1,38 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.entity.Refund;
+import com.ecommerce.payment.entity.RefundStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Composable filters for RefundRepository#findBy(Specification, ...). Each one is null when its
+ * value is absent, which Specification.where / and skip.
+ */
+public final class RefundSpecifications {
+
+    private RefundSpecifications() {
+    }
+
+    public static Specification<Refund> hasStatus(RefundStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Refund> forOrders(Collection<Long> orderIds) {
+        return orderIds == null || orderIds.isEmpty() ? null : (root, query, cb) -> root.get("orderId").in(orderIds);
+    }
+
+    public static Specification<Refund> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Refund> createdTo(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), to);
+    }
+
+    public static Specification<Refund> idAfter(Long id) {
+        return id == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+}
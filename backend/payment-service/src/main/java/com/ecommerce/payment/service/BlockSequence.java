@@ -0,0 +1,73 @@
+package com.ecommerce.payment.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory view of one named sequence. Values are handed out from a reserved block with an
+ * atomic increment; the database is only touched when the block runs out.
+ */
+@Slf4j
+class BlockSequence {
+
+    private final String name;
+    private final IdBlockAllocator idBlockAllocator;
+    private final int blockSize;
+    private final String initialValueQuery;
+
+    private final AtomicReference<Block> currentBlock = new AtomicReference<>();
+    private final Object refillLock = new Object();
+
+    BlockSequence(String name, IdBlockAllocator idBlockAllocator, int blockSize, String initialValueQuery) {
+        this.name = name;
+        this.idBlockAllocator = idBlockAllocator;
+        this.blockSize = blockSize;
+        this.initialValueQuery = initialValueQuery;
+    }
+
+    long nextValue() {
+        while (true) {
+            Block block = currentBlock.get();
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            synchronized (refillLock) {
+                // Another thread may already have replaced the exhausted block
+                if (currentBlock.get() == block) {
+                    currentBlock.set(allocateBlock());
+                }
+            }
+        }
+    }
+
+    private Block allocateBlock() {
+        long start;
+        try {
+            start = idBlockAllocator.allocateBlock(name, blockSize, initialValueQuery);
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            // Another instance created the sequence row at the same time (a duplicate key, or on
+            // MySQL a deadlock between the two gap locks taken by "for update"); it exists now
+            log.debug("Retrying {} block allocation after {}", name, e.getClass().getSimpleName());
+            start = idBlockAllocator.allocateBlock(name, blockSize, initialValueQuery);
+        }
+        log.info("Reserved {} block [{}, {})", name, start, start + blockSize);
+        return new Block(start, start + blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.payment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Generates PAY-, TXN- and REF- identifiers from block-allocated database sequences, so ids are
+ * unique across instances without scanning the payments or refunds tables.
+ */
+@Service
+public class BusinessIdGenerator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final BlockSequence paymentSequence;
+    private final BlockSequence transactionSequence;
+    private final BlockSequence refundSequence;
+
+    public BusinessIdGenerator(IdBlockAllocator idBlockAllocator,
+                               @Value("${payment.id.block-size:100}") int blockSize) {
+        // Payment and refund ids were previously count() + 1, which never exceeded the row's own id,
+        // so starting after max(id) cannot collide with existing ids
+        this.paymentSequence = new BlockSequence("PAYMENT_ID", idBlockAllocator, blockSize,
+                "select coalesce(max(id), 0) + 1 from payments");
+        this.transactionSequence = new BlockSequence("TRANSACTION_ID", idBlockAllocator, blockSize,
+                "select 1");
+        this.refundSequence = new BlockSequence("REFUND_ID", idBlockAllocator, blockSize,
+                "select coalesce(max(id), 0) + 1 from refunds");
+    }
+
+    public String nextPaymentId() {
+        return "PAY-" + LocalDateTime.now().format(DATE_FORMAT) + "-"
+                + String.format("%05d", paymentSequence.nextValue());
+    }
+
+    public String nextTransactionId() {
+        return "TXN-" + LocalDateTime.now().format(DATE_TIME_FORMAT) + "-"
+                + String.format("%04d", transactionSequence.nextValue());
+    }
+
+    public String nextRefundId() {
+        return "REF-" + LocalDateTime.now().format(DATE_FORMAT) + "-"
+                + String.format("%05d", refundSequence.nextValue());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.payment.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Hands out blocks of consecutive values from a named row in payment_id_sequences. The row is
+ * locked only for the duration of one short transaction per block, so instances sharing the
+ * table never receive overlapping blocks.
+ *
+ * Blocks are allocated on a small connection pool of their own. Ids are generated inside the
+ * callers' transactions, so a refill that borrowed from the main pool would wait for a second
+ * connection while every other caller, each holding one, waits for the refill. The pool takes
+ * the spring.datasource.hikari settings of the main pool, overridden by payment.id.hikari.
+ */
+@Service
+@Slf4j
+public class IdBlockAllocator {
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdBlockAllocator(DataSourceProperties dataSourceProperties, Environment environment) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        this.dataSource.setPoolName("id-block-allocator");
+        this.dataSource.setMaximumPoolSize(2);
+        this.dataSource.setMinimumIdle(0);
+        binder.bind("payment.id.hikari", Bindable.ofInstance(dataSource));
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Reserves {@code blockSize} values and returns the first one. If the sequence does not exist
+     * yet it is created starting at the value returned by {@code initialValueQuery}.
+     */
+    public long allocateBlock(String name, int blockSize, String initialValueQuery) {
+        Long blockStart = transactionTemplate.execute(status -> {
+            List<Long> current = jdbcTemplate.queryForList(
+                    "select next_value from payment_id_sequences where name = ? for update", Long.class, name);
+            long start;
+            if (current.isEmpty()) {
+                start = jdbcTemplate.queryForObject(initialValueQuery, Long.class);
+                jdbcTemplate.update("insert into payment_id_sequences (name, next_value) values (?, ?)", name, start + blockSize);
+            } else {
+                start = current.get(0);
+                jdbcTemplate.update("update payment_id_sequences set next_value = ? where name = ?", start + blockSize, name);
+            }
+            return start;
+        });
+
+        log.debug("Allocated {} block [{}, {})", name, blockStart, blockStart + blockSize);
+
+        return blockStart;
+    }
+
+    @PreDestroy
+    void close() {
+        dataSource.close();
+    }
+}
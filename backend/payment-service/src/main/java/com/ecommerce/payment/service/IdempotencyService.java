@@ -0,0 +1,249 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.IdempotencyRecord;
+import com.ecommerce.payment.exception.IdempotencyKeyConflictException;
+import com.ecommerce.payment.exception.IdempotencyKeyMismatchException;
+import com.ecommerce.payment.exception.InvalidIdempotencyKeyException;
+import com.ecommerce.payment.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes creation endpoints safe to retry with an Idempotency-Key header. The first request with a
+ * key claims it by inserting a row into idempotency_keys; the unique (scope, key) constraint lets
+ * only one of several concurrent requests through. Its response is stored on the row and replayed
+ * to every retry with the same key and body until the key expires. Completed keys are also kept in
+ * a bounded in-memory cache, so most retries are answered without touching the database.
+ *
+ * A claimed key is leased to its request for a short while. The response is stored in the same
+ * transaction as the payment or refund, and only while that lease is still held, so the key
+ * completes exactly when the business write commits. A request that throws releases its key. If
+ * the request dies without doing either, a retry takes the key over once the lease has run out; a
+ * request that overran its lease is rolled back when it tries to complete.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    // Completed responses by scope:key, least recently used evicted first
+    private final Map<String, CachedResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${payment.idempotency.ttl-ms:86400000}") long ttlMs,
+                              @Value("${payment.idempotency.lease-ms:120000}") long leaseMs,
+                              @Value("${payment.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} once per key and returns its response, or the stored response if the key
+     * was already used for the same request. Without a key the action simply runs.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        String cacheKey = scope + ":" + key;
+
+        CachedResponse cached = cache.get(cacheKey);
+        if (cached != null && cached.expiresAt.isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash, key, responseType);
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(scope);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(requestHash);
+        record.setExpiresAt(LocalDateTime.now().plus(ttl));
+
+        IdempotencyRecord existing = claim(record);
+        if (existing != null) {
+            CachedResponse stored = new CachedResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                    parse(existing.getResponseBody(), responseType), existing.getExpiresAt());
+            cache.put(cacheKey, stored);
+            return replay(stored, requestHash, key, responseType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            // The service method joins this transaction, so its write and the stored response commit together
+            response = transactionTemplate.execute(status -> {
+                ResponseEntity<T> result = action.get();
+                complete(record, result);
+                return result;
+            });
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(record.getId(), record.getLockedUntil());
+            throw e;
+        }
+
+        cache.put(cacheKey, new CachedResponse(requestHash, response.getStatusCode().value(), response.getBody(),
+                record.getExpiresAt()));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            cache.values().removeIf(cached -> !cached.expiresAt.isAfter(now));
+        }
+        int deleted = idempotencyRecordRepository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    // Claims the key for the record, inserting it or taking over an expired lease, and returns null;
+    // or returns the completed record that already holds the key
+    private IdempotencyRecord claim(IdempotencyRecord record) {
+        String key = record.getIdempotencyKey();
+        for (int attempt = 1; ; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            // Millisecond precision, so the lease read back from the database compares equal
+            record.setLockedUntil(now.plus(lease).truncatedTo(ChronoUnit.MILLIS));
+
+            // Looked up first, so a plain retry does not have to fail an insert
+            IdempotencyRecord existing = idempotencyRecordRepository
+                    .findByScopeAndIdempotencyKey(record.getScope(), key).orElse(null);
+            if (existing != null && existing.getExpiresAt().isAfter(now)) {
+                if (existing.getCompleted()) {
+                    return existing;
+                }
+                if (!existing.getRequestHash().equals(record.getRequestHash())) {
+                    throw mismatch(key);
+                }
+                if (existing.getLockedUntil() == null || existing.getLockedUntil().isAfter(now)) {
+                    throw inProgress(key);
+                }
+                // The request holding the key stopped without completing or releasing it
+                if (idempotencyRecordRepository.takeOver(existing.getId(), existing.getLockedUntil(),
+                        record.getLockedUntil()) == 1) {
+                    log.warn("Took over {} {} after its lease ran out", HEADER, key);
+                    record.setId(existing.getId());
+                    record.setExpiresAt(existing.getExpiresAt());
+                    return null;
+                }
+            } else {
+                try {
+                    if (existing != null) {
+                        idempotencyRecordRepository.delete(existing);
+                    }
+                    idempotencyRecordRepository.saveAndFlush(record);
+                    return null;
+                } catch (DataIntegrityViolationException e) {
+                    record.setId(null);
+                }
+            }
+            // Another request claimed or took over the key in between
+            if (attempt == MAX_CLAIM_ATTEMPTS) {
+                throw inProgress(key);
+            }
+        }
+    }
+
+    // Stores the response, provided the record still holds its lease; otherwise the caller's
+    // transaction is rolled back, since another request has taken the key over
+    private <T> void complete(IdempotencyRecord record, ResponseEntity<T> response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store response", e);
+        }
+        if (idempotencyRecordRepository.complete(record.getId(), record.getLockedUntil(),
+                response.getStatusCode().value(), body) == 0) {
+            throw new IdempotencyKeyConflictException("The lease on " + HEADER + " " + record.getIdempotencyKey()
+                    + " ran out and another request took it over");
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(CachedResponse cached, String requestHash, String key, Class<T> responseType) {
+        if (!cached.requestHash.equals(requestHash)) {
+            throw mismatch(key);
+        }
+        return ResponseEntity.status(cached.status)
+                .header(REPLAYED_HEADER, "true")
+                .body(responseType.cast(cached.body));
+    }
+
+    private static IdempotencyKeyConflictException inProgress(String key) {
+        return new IdempotencyKeyConflictException("A request with " + HEADER + " " + key + " is still being processed");
+    }
+
+    private static IdempotencyKeyMismatchException mismatch(String key) {
+        return new IdempotencyKeyMismatchException(HEADER + " " + key + " was already used for a different request");
+    }
+
+    private <T> T parse(String body, Class<T> responseType) {
+        try {
+            return body != null ? objectMapper.readValue(body, responseType) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class CachedResponse {
+        final String requestHash;
+        final int status;
+        final Object body;
+        final LocalDateTime expiresAt;
+    }
+}
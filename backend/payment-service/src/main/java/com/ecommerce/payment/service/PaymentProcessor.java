@@ -0,0 +1,157 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.client.PaymentGatewayClient;
+import com.ecommerce.payment.dto.GatewayChargeRequest;
+import com.ecommerce.payment.dto.GatewayChargeResult;
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.entity.PaymentStatus;
+import com.ecommerce.payment.entity.PaymentTransaction;
+import com.ecommerce.payment.entity.TransactionStatus;
+import com.ecommerce.payment.repository.PaymentRepository;
+import com.ecommerce.payment.repository.PaymentTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Second and third stage of a gateway payment. PaymentService commits the payment as PROCESSING
+ * with a PENDING charge transaction; once that commits, the charge is handed to the bounded
+ * gateway executor, called without a transaction, and its result recorded in a short transaction
+ * of its own. No database connection is held while waiting on the gateway.
+ *
+ * Charges that never got a result, because the executor was full or the instance stopped, are
+ * found by a periodic check and submitted again with the same reference, so the gateway can
+ * recognize the retry. Each instance runs the check, so a stalled payment is first claimed with a
+ * conditional update and only the instance that claimed it submits it.
+ */
+@Component
+@Slf4j
+public class PaymentProcessor {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final long stalledAfterMs;
+
+    // Payments queued or being charged by this instance, so the stall check never submits them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PaymentProcessor(PaymentRepository paymentRepository,
+                            PaymentTransactionRepository paymentTransactionRepository,
+                            PaymentGatewayClient paymentGatewayClient,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("paymentGatewayExecutor") ThreadPoolTaskExecutor executor,
+                            @Value("${payment.gateway.stalled-after-ms:300000}") long stalledAfterMs) {
+        this.paymentRepository = paymentRepository;
+        this.paymentTransactionRepository = paymentTransactionRepository;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.stalledAfterMs = stalledAfterMs;
+    }
+
+    static GatewayChargeRequest chargeRequest(Payment payment, PaymentTransaction charge) {
+        return new GatewayChargeRequest(payment.getId(), charge.getTransactionId(), payment.getPaymentGateway(),
+                payment.getPaymentMethod(), charge.getAmount(), payment.getCurrency());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentSubmitted(PaymentSubmittedEvent event) {
+        submit(event.getRequest());
+    }
+
+    @Scheduled(fixedDelayString = "${payment.gateway.stall-check-interval-ms:60000}")
+    public void resubmitStalled() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(stalledAfterMs));
+        for (PaymentTransaction charge : paymentTransactionRepository.findStalledCharges(cutoff)) {
+            Payment payment = charge.getPayment();
+            if (inFlight.contains(payment.getId())) {
+                continue;
+            }
+            Integer claimed = transactionTemplate.execute(status ->
+                    paymentRepository.claimStalled(payment.getId(), cutoff, LocalDateTime.now()));
+            if (claimed == null || claimed != 1) {
+                log.debug("Payment {} was claimed by another instance or completed", payment.getPaymentId());
+                continue;
+            }
+            log.warn("Payment {} has been PROCESSING since {}, submitting it again",
+                    payment.getPaymentId(), payment.getUpdatedAt());
+            submit(chargeRequest(payment, charge));
+        }
+    }
+
+    private void submit(GatewayChargeRequest request) {
+        if (!inFlight.add(request.getPaymentId())) {
+            return;
+        }
+        try {
+            executor.execute(() -> charge(request));
+        } catch (TaskRejectedException e) {
+            inFlight.remove(request.getPaymentId());
+            log.warn("Gateway executor is full, payment {} stays PROCESSING until the stall check submits it again",
+                    request.getPaymentId());
+        }
+    }
+
+    private void charge(GatewayChargeRequest request) {
+        try {
+            GatewayChargeResult result;
+            try {
+                result = paymentGatewayClient.charge(request);
+            } catch (RuntimeException e) {
+                log.error("Payment processing error: {}", e.getMessage());
+                result = new GatewayChargeResult(false, null, "ERROR", "Gateway error: " + e.getMessage());
+            }
+            GatewayChargeResult outcome = result;
+            transactionTemplate.executeWithoutResult(status -> complete(request, outcome));
+        } catch (RuntimeException e) {
+            // The payment stays PROCESSING and is picked up again by the stall check
+            log.error("Failed to record gateway result for payment {}", request.getPaymentId(), e);
+        } finally {
+            inFlight.remove(request.getPaymentId());
+        }
+    }
+
+    private void complete(GatewayChargeRequest request, GatewayChargeResult result) {
+        // Locked, so a result arriving twice (e.g. from a resubmitted charge) is only applied once
+        Payment payment = paymentRepository.findByIdForUpdate(request.getPaymentId()).orElse(null);
+        if (payment == null || payment.getStatus() != PaymentStatus.PROCESSING) {
+            log.info("Ignoring gateway result for payment {}, it is no longer PROCESSING", request.getPaymentId());
+            return;
+        }
+        PaymentTransaction transaction = paymentTransactionRepository.findByTransactionId(request.getReference())
+                .orElseThrow(() -> new IllegalStateException("Charge transaction not found: " + request.getReference()));
+
+        payment.setGatewayResponse(result.getGatewayResponse());
+        transaction.setGatewayResponse(result.getGatewayResponse());
+        if (result.isSuccess()) {
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payment.setPaidAt(LocalDateTime.now());
+            payment.setGatewayTransactionId(result.getGatewayTransactionId());
+            transaction.setStatus(TransactionStatus.SUCCESS);
+            transaction.setGatewayTransactionId(result.getGatewayTransactionId());
+            transaction.setRemarks("Payment processed successfully");
+            log.info("Payment successful: {}", payment.getPaymentId());
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailedAt(LocalDateTime.now());
+            payment.setFailureReason(result.getFailureReason());
+            transaction.setStatus(TransactionStatus.FAILED);
+            transaction.setRemarks("Payment failed - " + result.getFailureReason());
+            log.warn("Payment failed: {}", payment.getPaymentId());
+        }
+    }
+}
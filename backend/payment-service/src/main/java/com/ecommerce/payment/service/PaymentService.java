@@ -6,18 +6,24 @@ import com.ecommerce.payment.entity.*;
 import com.ecommerce.payment.exception.*;
 import com.ecommerce.payment.repository.PaymentRepository;
 import com.ecommerce.payment.repository.PaymentTransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
-import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,7 +33,10 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
     private final OrderClient orderClient;
-    private final Random random = new Random();
+    private final BusinessIdGenerator businessIdGenerator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public PaymentResponseDTO createPayment(PaymentRequestDTO requestDTO) {
@@ -41,7 +50,7 @@ public class PaymentService {
 
         // 3. Create payment
         Payment payment = new Payment();
-        payment.setPaymentId(generatePaymentId());
+        payment.setPaymentId(businessIdGenerator.nextPaymentId());
         payment.setOrderId(requestDTO.getOrderId());
         payment.setOrderNumber(requestDTO.getOrderNumber());
         payment.setUserId(requestDTO.getUserId());
@@ -71,13 +80,12 @@ public class PaymentService {
 
         Payment savedPayment = paymentRepository.save(payment);
 
-        // 6. Process payment based on method
+        // 6. Charge through the gateway once this transaction commits (see PaymentProcessor)
         if (requestDTO.getPaymentMethod() == PaymentMethod.CASH_ON_DELIVERY) {
             // COD doesn't need immediate processing
             savedPayment.setStatus(PaymentStatus.PENDING);
         } else {
-            // Process payment through gateway
-            processPaymentThroughGateway(savedPayment, requestDTO);
+            submitCharge(savedPayment, "Payment submitted to " + savedPayment.getPaymentGateway());
         }
 
         paymentRepository.save(savedPayment);
@@ -89,48 +97,19 @@ public class PaymentService {
 
     @Transactional
     public PaymentResponseDTO processPayment(Long id) {
-        Payment payment = paymentRepository.findById(id)
+        // Locked, so concurrent calls cannot both see PENDING and submit two charges
+        Payment payment = paymentRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
 
         if (payment.getStatus() != PaymentStatus.PENDING) {
             throw new InvalidPaymentStateException("Payment is not in PENDING status");
         }
 
-        // Simulate payment processing
-        payment.setStatus(PaymentStatus.PROCESSING);
-        paymentRepository.save(payment);
-
-        // Create transaction
-        PaymentTransaction transaction = new PaymentTransaction();
-        transaction.setTransactionId(generateTransactionId());
-        transaction.setTransactionType(TransactionType.CHARGE);
-        transaction.setAmount(payment.getAmount());
-        transaction.setStatus(TransactionStatus.PENDING);
-        transaction.setRemarks("Payment processing initiated");
-        payment.addTransaction(transaction);
-
-        // Simulate gateway processing (90% success rate)
-        boolean success = simulateGatewayProcessing();
-
-        if (success) {
-            payment.setStatus(PaymentStatus.COMPLETED);
-            payment.setPaidAt(LocalDateTime.now());
-            payment.setGatewayTransactionId("GW-" + UUID.randomUUID().toString());
-            transaction.setStatus(TransactionStatus.SUCCESS);
-            transaction.setGatewayTransactionId(payment.getGatewayTransactionId());
-            transaction.setRemarks("Payment successful");
-            log.info("Payment successful: {}", payment.getPaymentId());
-        } else {
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setFailedAt(LocalDateTime.now());
-            payment.setFailureReason("Gateway declined the transaction");
-            transaction.setStatus(TransactionStatus.FAILED);
-            transaction.setRemarks("Payment failed - Gateway declined");
-            log.warn("Payment failed: {}", payment.getPaymentId());
-        }
-
+        submitCharge(payment, "Payment processing initiated");
         Payment processedPayment = paymentRepository.save(payment);
 
+        log.info("Payment submitted for processing: {}", payment.getPaymentId());
+
         return mapToResponseDTO(processedPayment);
     }
 
@@ -152,30 +131,70 @@ public class PaymentService {
         return mapToResponseDTO(payment);
     }
 
+    @Transactional(readOnly = true)
     public List<PaymentResponseDTO> getAllPayments() {
         return paymentRepository.findAll().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<PaymentResponseDTO> getPaymentsPage(String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Payment> payments;
+        if (cursor == null || cursor.isBlank()) {
+            payments = paymentRepository.findPage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            payments = paymentRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return PageCursor.page(payments, pageSize, Payment::getCreatedAt, Payment::getId, this::mapToResponseDTO);
+    }
+
+    @Transactional(readOnly = true)
     public List<PaymentResponseDTO> getPaymentsByUserId(Long userId) {
         return paymentRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<PaymentResponseDTO> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<PaymentResponseDTO> getPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return paymentRepository.findByDateRange(startDate, endDate).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Writes the payments created in the range to the output stream as newline-delimited JSON.
+     * Rows are streamed from the database and detached once written, so memory use does not grow
+     * with the size of the export. Missing bounds default to everything up to now.
+     */
+    @Transactional(readOnly = true)
+    public void exportPayments(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) throws IOException {
+        LocalDateTime from = startDate != null ? startDate : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+
+        try (Stream<Payment> payments = paymentRepository.streamByDateRange(from, to)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(mapToResponseDTO(payment)));
+                out.write('\n');
+                entityManager.detach(payment);
+            }
+        }
+    }
+
     @Transactional
     public PaymentResponseDTO confirmCODPayment(Long id) {
         Payment payment = paymentRepository.findById(id)
@@ -194,7 +213,7 @@ public class PaymentService {
 
         // Create transaction
         PaymentTransaction transaction = new PaymentTransaction();
-        transaction.setTransactionId(generateTransactionId());
+        transaction.setTransactionId(businessIdGenerator.nextTransactionId());
         transaction.setTransactionType(TransactionType.CHARGE);
         transaction.setAmount(payment.getAmount());
         transaction.setStatus(TransactionStatus.SUCCESS);
@@ -221,56 +240,19 @@ public class PaymentService {
         log.info("Payment deleted: {}", payment.getPaymentId());
     }
 
-    private void processPaymentThroughGateway(Payment payment, PaymentRequestDTO requestDTO) {
-        try {
-            payment.setStatus(PaymentStatus.PROCESSING);
-
-            // Simulate gateway API call
-            boolean success = simulateGatewayProcessing();
-
-            if (success) {
-                payment.setStatus(PaymentStatus.COMPLETED);
-                payment.setPaidAt(LocalDateTime.now());
-                payment.setGatewayTransactionId("GW-" + UUID.randomUUID().toString());
-                payment.setGatewayResponse("SUCCESS");
-
-                // Create success transaction
-                PaymentTransaction transaction = new PaymentTransaction();
-                transaction.setTransactionId(generateTransactionId());
-                transaction.setTransactionType(TransactionType.CHARGE);
-                transaction.setAmount(payment.getAmount());
-                transaction.setStatus(TransactionStatus.SUCCESS);
-                transaction.setGatewayTransactionId(payment.getGatewayTransactionId());
-                transaction.setRemarks("Payment processed successfully");
-                payment.addTransaction(transaction);
-
-            } else {
-                payment.setStatus(PaymentStatus.FAILED);
-                payment.setFailedAt(LocalDateTime.now());
-                payment.setFailureReason("Insufficient funds / Card declined");
-                payment.setGatewayResponse("FAILED");
-
-                // Create failed transaction
-                PaymentTransaction transaction = new PaymentTransaction();
-                transaction.setTransactionId(generateTransactionId());
-                transaction.setTransactionType(TransactionType.CHARGE);
-                transaction.setAmount(payment.getAmount());
-                transaction.setStatus(TransactionStatus.FAILED);
-                transaction.setRemarks("Payment failed - " + payment.getFailureReason());
-                payment.addTransaction(transaction);
-            }
+    // Moves the payment to PROCESSING with a pending charge, which is sent to the gateway after commit
+    private void submitCharge(Payment payment, String remarks) {
+        payment.setStatus(PaymentStatus.PROCESSING);
 
-        } catch (Exception e) {
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setFailedAt(LocalDateTime.now());
-            payment.setFailureReason("Gateway error: " + e.getMessage());
-            log.error("Payment processing error: {}", e.getMessage());
-        }
-    }
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setTransactionId(businessIdGenerator.nextTransactionId());
+        transaction.setTransactionType(TransactionType.CHARGE);
+        transaction.setAmount(payment.getAmount());
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setRemarks(remarks);
+        payment.addTransaction(transaction);
 
-    private boolean simulateGatewayProcessing() {
-        // Simulate 90% success rate
-        return random.nextInt(100) < 90;
+        eventPublisher.publishEvent(new PaymentSubmittedEvent(PaymentProcessor.chargeRequest(payment, transaction)));
     }
 
     private PaymentGateway determinePaymentGateway(PaymentMethod method) {
@@ -306,21 +288,6 @@ public class PaymentService {
         };
     }
 
-    private String generatePaymentId() {
-        LocalDateTime now = LocalDateTime.now();
-        String datePart = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = paymentRepository.count() + 1;
-        String sequencePart = String.format("%05d", count);
-        return "PAY-" + datePart + "-" + sequencePart;
-    }
-
-    private String generateTransactionId() {
-        LocalDateTime now = LocalDateTime.now();
-        String datePart = now.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String randomPart = String.format("%04d", random.nextInt(10000));
-        return "TXN-" + datePart + "-" + randomPart;
-    }
-
     private PaymentResponseDTO mapToResponseDTO(Payment payment) {
         PaymentResponseDTO dto = new PaymentResponseDTO();
         dto.setId(payment.getId());
@@ -346,6 +313,7 @@ public class PaymentService {
         dto.setPaidAt(payment.getPaidAt());
         dto.setFailedAt(payment.getFailedAt());
         dto.setRefundedAt(payment.getRefundedAt());
+        dto.setRefundedTotal(payment.getRefundedTotal());
         dto.setCreatedAt(payment.getCreatedAt());
         dto.setUpdatedAt(payment.getUpdatedAt());
 
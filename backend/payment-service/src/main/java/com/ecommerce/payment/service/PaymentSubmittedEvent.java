@@ -0,0 +1,13 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.GatewayChargeRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when a payment moves to PROCESSING and has to be charged through its gateway
+@Getter
+@AllArgsConstructor
+class PaymentSubmittedEvent {
+
+    private final GatewayChargeRequest request;
+}
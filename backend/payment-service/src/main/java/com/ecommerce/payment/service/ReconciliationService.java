@@ -0,0 +1,365 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.ReconciliationMismatchDTO;
+import com.ecommerce.payment.dto.ReconciliationSummaryDTO;
+import com.ecommerce.payment.entity.TransactionStatus;
+import com.ecommerce.payment.exception.InvalidSettlementFileException;
+import com.ecommerce.payment.repository.LedgerEntry;
+import com.ecommerce.payment.repository.PaymentTransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reconciles payment transactions against a gateway settlement file. The file must be sorted by
+ * gateway transaction id; the ledger is streamed from the database in the same order, and the two
+ * are merge-joined a row at a time. Only the current row of each side is held, so memory use stays
+ * constant however large the file is. Mismatches are written as they are found.
+ *
+ * Ledger transactions that never settled (PENDING, FAILED, REVERSED) are not expected in the file;
+ * only a SUCCESS transaction missing from it is reported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationService {
+
+    public static final String ID_COLUMN = "gateway_transaction_id";
+    public static final String AMOUNT_COLUMN = "amount";
+    public static final String CURRENCY_COLUMN = "currency";
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Reads the header of the settlement file, so a file that cannot be reconciled at all is
+     * rejected before the report starts streaming.
+     */
+    public SettlementFile openSettlementFile(InputStream in) throws IOException {
+        SettlementFile file = new SettlementFile(in);
+        try {
+            file.readHeader();
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Writes every mismatch between the settlement file and the transactions created in the range
+     * as a line of JSON, then a SUMMARY line. A file or ledger out of order stops the run; this is
+     * reported in the summary, as the response is already being written by then.
+     */
+    @Transactional(readOnly = true)
+    public void reconcile(SettlementFile file, LocalDateTime startDate, LocalDateTime endDate,
+                          OutputStream out) throws IOException {
+        LocalDateTime from = startDate != null ? startDate : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = endDate != null ? endDate : LocalDateTime.now();
+        long start = System.currentTimeMillis();
+
+        Run run = new Run(file, out);
+        try (file; Stream<LedgerEntry> ledger = paymentTransactionRepository.streamLedgerByGatewayTransactionId(from, to)) {
+            run.ledger = ledger.iterator();
+            run.join();
+        } catch (InvalidSettlementFileException | IllegalStateException e) {
+            run.error = e.getMessage();
+            log.warn("Reconciliation stopped at settlement line {}: {}", file.lineNumber, e.getMessage());
+        }
+
+        ReconciliationSummaryDTO summary = new ReconciliationSummaryDTO();
+        summary.setCompleted(run.error == null);
+        summary.setError(run.error);
+        summary.setSettlementLines(run.settlementLines);
+        summary.setLedgerEntries(run.ledgerEntries);
+        summary.setMatched(run.matched);
+        summary.setMismatches(run.mismatches);
+        summary.setElapsedMs(System.currentTimeMillis() - start);
+        out.write(objectMapper.writeValueAsBytes(summary));
+        out.write('\n');
+        out.flush();
+
+        log.info("Reconciled {} settlement lines against {} ledger entries: {} matched, {} mismatches",
+                run.settlementLines, run.ledgerEntries, run.matched, run.mismatches);
+    }
+
+    // State of one merge-join
+    private final class Run {
+        final SettlementFile file;
+        final OutputStream out;
+        Iterator<LedgerEntry> ledger;
+
+        SettlementLine settlement;
+        LedgerEntry entry;
+        String lastSettlementId;
+        String lastLedgerId;
+
+        long settlementLines;
+        long ledgerEntries;
+        long matched;
+        long mismatches;
+        String error;
+
+        Run(SettlementFile file, OutputStream out) {
+            this.file = file;
+            this.out = out;
+        }
+
+        void join() throws IOException {
+            nextSettlement();
+            nextEntry();
+            while (settlement != null || entry != null) {
+                int order = settlement == null ? 1 : entry == null ? -1
+                        : settlement.gatewayTransactionId.compareTo(entry.gatewayTransactionId());
+                if (order < 0) {
+                    ReconciliationMismatchDTO mismatch = mismatch("MISSING_IN_LEDGER", settlement, null);
+                    mismatch.setMessage("Settled by the gateway but not recorded");
+                    write(mismatch);
+                    nextSettlement();
+                } else if (order > 0) {
+                    if (entry.status() == TransactionStatus.SUCCESS) {
+                        ReconciliationMismatchDTO mismatch = mismatch("MISSING_IN_SETTLEMENT", null, entry);
+                        mismatch.setMessage("Recorded as successful but not settled by the gateway");
+                        write(mismatch);
+                    }
+                    nextEntry();
+                } else {
+                    compare(settlement, entry);
+                    nextSettlement();
+                    nextEntry();
+                }
+            }
+        }
+
+        void compare(SettlementLine line, LedgerEntry entry) throws IOException {
+            boolean clean = true;
+            if (entry.status() != TransactionStatus.SUCCESS) {
+                ReconciliationMismatchDTO mismatch = mismatch("STATUS_MISMATCH", line, entry);
+                mismatch.setMessage("Settled by the gateway but recorded as " + entry.status());
+                write(mismatch);
+                clean = false;
+            }
+            // Refunds may be settled as negative amounts; the ledger records them as positive
+            if (entry.amount() == null || line.amount.abs().compareTo(entry.amount().abs()) != 0) {
+                write(mismatch("AMOUNT_MISMATCH", line, entry));
+                clean = false;
+            }
+            if (!line.currency.equalsIgnoreCase(entry.currency())) {
+                write(mismatch("CURRENCY_MISMATCH", line, entry));
+                clean = false;
+            }
+            if (clean) {
+                matched++;
+            }
+        }
+
+        // Advances to the next valid settlement line, reporting invalid and duplicate lines on the way
+        void nextSettlement() throws IOException {
+            while (true) {
+                String[] fields = file.next();
+                if (fields == null) {
+                    settlement = null;
+                    return;
+                }
+                settlementLines++;
+                SettlementLine line;
+                try {
+                    line = file.parse(fields);
+                } catch (IllegalArgumentException e) {
+                    ReconciliationMismatchDTO mismatch = new ReconciliationMismatchDTO();
+                    mismatch.setType("INVALID_LINE");
+                    mismatch.setLineNumber(file.lineNumber);
+                    mismatch.setMessage(e.getMessage());
+                    write(mismatch);
+                    continue;
+                }
+
+                int order = lastSettlementId == null ? 1 : line.gatewayTransactionId.compareTo(lastSettlementId);
+                if (order < 0) {
+                    throw new InvalidSettlementFileException("Settlement file is not sorted by " + ID_COLUMN
+                            + ": line " + file.lineNumber + " (" + line.gatewayTransactionId + ") comes after "
+                            + lastSettlementId + ". Sort it by byte value, e.g. with LC_ALL=C sort");
+                }
+                if (order == 0) {
+                    ReconciliationMismatchDTO mismatch = mismatch("DUPLICATE_IN_SETTLEMENT", line, null);
+                    mismatch.setMessage("Gateway transaction settled more than once; only the first line is matched");
+                    write(mismatch);
+                    continue;
+                }
+                lastSettlementId = line.gatewayTransactionId;
+                settlement = line;
+                return;
+            }
+        }
+
+        // Advances to the next ledger entry, reporting duplicate gateway ids on the way
+        void nextEntry() throws IOException {
+            while (ledger.hasNext()) {
+                LedgerEntry next = ledger.next();
+                ledgerEntries++;
+                int order = lastLedgerId == null ? 1 : next.gatewayTransactionId().compareTo(lastLedgerId);
+                if (order < 0) {
+                    // The column lost its binary collation, see migration V6
+                    throw new IllegalStateException("Ledger is not ordered by gateway transaction id: "
+                            + next.gatewayTransactionId() + " comes after " + lastLedgerId);
+                }
+                if (order == 0) {
+                    ReconciliationMismatchDTO mismatch = mismatch("DUPLICATE_IN_LEDGER", null, next);
+                    mismatch.setMessage("Gateway transaction recorded more than once; only the first is matched");
+                    write(mismatch);
+                    continue;
+                }
+                lastLedgerId = next.gatewayTransactionId();
+                entry = next;
+                return;
+            }
+            entry = null;
+        }
+
+        ReconciliationMismatchDTO mismatch(String type, SettlementLine line, LedgerEntry entry) {
+            ReconciliationMismatchDTO mismatch = new ReconciliationMismatchDTO();
+            mismatch.setType(type);
+            if (line != null) {
+                mismatch.setGatewayTransactionId(line.gatewayTransactionId);
+                mismatch.setLineNumber(line.lineNumber);
+                mismatch.setSettlementAmount(line.amount);
+                mismatch.setSettlementCurrency(line.currency);
+            }
+            if (entry != null) {
+                mismatch.setGatewayTransactionId(entry.gatewayTransactionId());
+                mismatch.setTransactionId(entry.transactionId());
+                mismatch.setPaymentId(entry.paymentId());
+                mismatch.setTransactionType(entry.transactionType());
+                mismatch.setLedgerStatus(entry.status());
+                mismatch.setLedgerAmount(entry.amount());
+                mismatch.setLedgerCurrency(entry.currency());
+            }
+            return mismatch;
+        }
+
+        void write(ReconciliationMismatchDTO mismatch) throws IOException {
+            mismatches++;
+            out.write(objectMapper.writeValueAsBytes(mismatch));
+            out.write('\n');
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class SettlementLine {
+        final long lineNumber;
+        final String gatewayTransactionId;
+        final BigDecimal amount;
+        final String currency;
+    }
+
+    /**
+     * A settlement CSV read a line at a time. The first line is a header naming the columns;
+     * gateway_transaction_id, amount and currency are required, others are ignored. Fields may be
+     * quoted but must not contain commas or line breaks.
+     */
+    public static final class SettlementFile implements Closeable {
+
+        private final BufferedReader reader;
+        private long lineNumber;
+        private int idColumn = -1;
+        private int amountColumn = -1;
+        private int currencyColumn = -1;
+        private int columns;
+
+        private SettlementFile(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        }
+
+        private void readHeader() throws IOException {
+            String[] header = next();
+            if (header == null) {
+                throw new InvalidSettlementFileException("Settlement file is empty");
+            }
+            for (int i = 0; i < header.length; i++) {
+                String column = header[i].toLowerCase();
+                // Byte order mark written by some spreadsheet exports
+                if (i == 0 && column.startsWith("\uFEFF")) {
+                    column = column.substring(1);
+                }
+                switch (column) {
+                    case ID_COLUMN -> idColumn = i;
+                    case AMOUNT_COLUMN -> amountColumn = i;
+                    case CURRENCY_COLUMN -> currencyColumn = i;
+                    default -> { }
+                }
+            }
+            if (idColumn < 0 || amountColumn < 0 || currencyColumn < 0) {
+                throw new InvalidSettlementFileException("Settlement file header must name the columns "
+                        + String.join(", ", List.of(ID_COLUMN, AMOUNT_COLUMN, CURRENCY_COLUMN)) + ", got: "
+                        + String.join(",", header));
+            }
+            columns = Math.max(idColumn, Math.max(amountColumn, currencyColumn)) + 1;
+        }
+
+        // Fields of the next non-blank line, null at the end of the file
+        private String[] next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (line.isBlank());
+
+            String[] fields = line.split(",", -1);
+            for (int i = 0; i < fields.length; i++) {
+                String field = fields[i].trim();
+                if (field.length() >= 2 && field.charAt(0) == '"' && field.charAt(field.length() - 1) == '"') {
+                    field = field.substring(1, field.length() - 1).replace("\"\"", "\"");
+                }
+                fields[i] = field;
+            }
+            return fields;
+        }
+
+        private SettlementLine parse(String[] fields) {
+            if (fields.length < columns) {
+                throw new IllegalArgumentException("Expected at least " + columns + " columns, got "
+                        + fields.length + ": " + String.join(",", fields));
+            }
+            String id = fields[idColumn];
+            if (id.isEmpty()) {
+                throw new IllegalArgumentException("Missing " + ID_COLUMN);
+            }
+            BigDecimal amount;
+            try {
+                amount = new BigDecimal(fields[amountColumn]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + AMOUNT_COLUMN + " '" + fields[amountColumn] + "'");
+            }
+            if (fields[currencyColumn].isEmpty()) {
+                throw new IllegalArgumentException("Missing " + CURRENCY_COLUMN);
+            }
+            return new SettlementLine(lineNumber, id, amount, fields[currencyColumn]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.RefundJobRequestDTO;
+import com.ecommerce.payment.dto.RefundJobResponseDTO;
+import com.ecommerce.payment.dto.RefundResponseDTO;
+import com.ecommerce.payment.entity.Refund;
+import com.ecommerce.payment.entity.RefundJob;
+import com.ecommerce.payment.entity.RefundJobStatus;
+import com.ecommerce.payment.entity.RefundStatus;
+import com.ecommerce.payment.exception.InvalidRefundJobException;
+import com.ecommerce.payment.exception.ResourceNotFoundException;
+import com.ecommerce.payment.repository.RefundJobRepository;
+import com.ecommerce.payment.repository.RefundRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static com.ecommerce.payment.repository.RefundSpecifications.*;
+
+/**
+ * Bulk refund jobs: process every PENDING refund matching a filter, e.g. after a mass cancellation.
+ * A job walks the matching refunds in id order, a chunk at a time. The refunds of a chunk are
+ * processed in parallel on the shared refund worker pool, one task per payment so refunds of the
+ * same payment never race on its refunded total. Each refund goes through
+ * RefundService#processRefund with its own transaction.
+ *
+ * After every chunk the job row records the last refund id and the counters. A job that stopped,
+ * whether cancelled, failed or interrupted by a restart, resumes from that checkpoint. Refunds
+ * already processed are no longer PENDING and drop out of the filter, so a chunk cut short is
+ * not processed twice.
+ */
+@Service
+@Slf4j
+public class RefundJobService {
+
+    private final RefundJobRepository refundJobRepository;
+    private final RefundRepository refundRepository;
+    private final RefundService refundService;
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final ThreadPoolTaskExecutor workerExecutor;
+    private final int chunkSize;
+    private final Duration staleAfter;
+
+    // Jobs running on this instance
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public RefundJobService(RefundJobRepository refundJobRepository,
+                            RefundRepository refundRepository,
+                            RefundService refundService,
+                            @Qualifier("refundJobExecutor") ThreadPoolTaskExecutor jobExecutor,
+                            @Qualifier("refundWorkerExecutor") ThreadPoolTaskExecutor workerExecutor,
+                            @Value("${payment.refund-job.chunk-size:100}") int chunkSize,
+                            @Value("${payment.refund-job.stale-after-ms:300000}") long staleAfterMs) {
+        this.refundJobRepository = refundJobRepository;
+        this.refundRepository = refundRepository;
+        this.refundService = refundService;
+        this.jobExecutor = jobExecutor;
+        this.workerExecutor = workerExecutor;
+        this.chunkSize = chunkSize;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+    }
+
+    public RefundJobResponseDTO startJob(RefundJobRequestDTO requestDTO) {
+        if ((requestDTO.getOrderIds() == null || requestDTO.getOrderIds().isEmpty())
+                && requestDTO.getCreatedFrom() == null && requestDTO.getCreatedTo() == null) {
+            throw new InvalidRefundJobException("A refund job needs orderIds, createdFrom or createdTo");
+        }
+        if (requestDTO.getCreatedFrom() != null && requestDTO.getCreatedTo() != null
+                && requestDTO.getCreatedFrom().isAfter(requestDTO.getCreatedTo())) {
+            throw new InvalidRefundJobException("createdFrom must not be after createdTo");
+        }
+
+        RefundJob job = new RefundJob();
+        if (requestDTO.getOrderIds() != null && !requestDTO.getOrderIds().isEmpty()) {
+            job.setOrderIds(requestDTO.getOrderIds().stream().distinct().map(String::valueOf).collect(Collectors.joining(",")));
+            if (job.getOrderIds().length() > RefundJob.MAX_ORDER_IDS_LENGTH) {
+                throw new InvalidRefundJobException("Too many order IDs for one job, split them or filter by date range");
+            }
+        }
+        job.setCreatedFrom(requestDTO.getCreatedFrom());
+        job.setCreatedTo(requestDTO.getCreatedTo());
+        job.setTotalRefunds(refundRepository.count(filter(job)));
+        job.setStartedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getStartedAt());
+        RefundJob savedJob = refundJobRepository.save(job);
+
+        log.info("Refund job {} started for {} refunds", savedJob.getId(), savedJob.getTotalRefunds());
+
+        launch(savedJob.getId());
+        return mapToResponseDTO(savedJob);
+    }
+
+    public RefundJobResponseDTO getJob(Long id) {
+        return mapToResponseDTO(findJob(id));
+    }
+
+    public RefundJobResponseDTO cancelJob(Long id) {
+        findJob(id);
+        if (refundJobRepository.updateStatus(id, RefundJobStatus.RUNNING, RefundJobStatus.CANCELLED,
+                null, LocalDateTime.now()) == 0) {
+            throw new InvalidRefundJobException("Only running refund jobs can be cancelled");
+        }
+        log.info("Refund job {} cancelled", id);
+        // The job thread notices before its next chunk
+        return mapToResponseDTO(findJob(id));
+    }
+
+    public RefundJobResponseDTO resumeJob(Long id) {
+        RefundJob job = findJob(id);
+        if (job.getStatus() == RefundJobStatus.COMPLETED) {
+            throw new InvalidRefundJobException("Refund job is already completed");
+        }
+        if (running.contains(id) || (job.getStatus() == RefundJobStatus.RUNNING
+                && job.getUpdatedAt().isAfter(LocalDateTime.now().minus(staleAfter)))) {
+            throw new InvalidRefundJobException("Refund job is still running");
+        }
+
+        // A RUNNING job without a recent checkpoint was interrupted, e.g. by a restart
+        if (refundJobRepository.resume(id, job.getStatus(), job.getUpdatedAt(), LocalDateTime.now()) == 0) {
+            throw new InvalidRefundJobException("Refund job was changed concurrently, please retry");
+        }
+        log.info("Refund job {} resumed after refund {}", id, job.getLastRefundId());
+
+        launch(id);
+        return mapToResponseDTO(findJob(id));
+    }
+
+    private void launch(Long id) {
+        if (!running.add(id)) {
+            throw new InvalidRefundJobException("Refund job is still running");
+        }
+        try {
+            jobExecutor.execute(() -> run(id));
+        } catch (TaskRejectedException e) {
+            running.remove(id);
+            refundJobRepository.updateStatus(id, RefundJobStatus.RUNNING, RefundJobStatus.FAILED,
+                    "Too many refund jobs running", LocalDateTime.now());
+            throw new InvalidRefundJobException("Too many refund jobs running, resume this job later");
+        }
+    }
+
+    private void run(Long id) {
+        try {
+            RefundJob job = findJob(id);
+            long lastRefundId = job.getLastRefundId();
+            while (refundJobRepository.findStatusById(id) == RefundJobStatus.RUNNING) {
+                long chunkStart = System.currentTimeMillis();
+                List<Refund> chunk = refundRepository.findBy(filter(job).and(idAfter(lastRefundId)),
+                        query -> query.sortBy(Sort.by("id")).limit(chunkSize).all());
+                if (chunk.isEmpty()) {
+                    refundJobRepository.updateStatus(id, RefundJobStatus.RUNNING, RefundJobStatus.COMPLETED,
+                            null, LocalDateTime.now());
+                    log.info("Refund job {} completed", id);
+                    break;
+                }
+
+                ChunkResult result = processChunk(chunk);
+                lastRefundId = chunk.get(chunk.size() - 1).getId();
+                refundJobRepository.checkpoint(id, lastRefundId, result.succeeded.get(), result.failed.get(),
+                        result.skipped.get(), System.currentTimeMillis() - chunkStart, truncate(result.lastError.get()),
+                        LocalDateTime.now());
+                log.debug("Refund job {} checkpoint at refund {}", id, lastRefundId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Refund job {} failed", id, e);
+            refundJobRepository.updateStatus(id, RefundJobStatus.RUNNING, RefundJobStatus.FAILED,
+                    truncate(e.getMessage()), LocalDateTime.now());
+        } finally {
+            running.remove(id);
+        }
+    }
+
+    private ChunkResult processChunk(List<Refund> chunk) {
+        Map<Long, List<Long>> refundIdsByPayment = chunk.stream().collect(Collectors.groupingBy(
+                Refund::getPaymentId, LinkedHashMap::new, Collectors.mapping(Refund::getId, Collectors.toList())));
+
+        ChunkResult result = new ChunkResult();
+        CompletableFuture<?>[] tasks = refundIdsByPayment.values().stream()
+                .map(refundIds -> CompletableFuture.runAsync(() -> refundIds.forEach(refundId -> process(refundId, result)),
+                        workerExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).join();
+        return result;
+    }
+
+    private void process(Long refundId, ChunkResult result) {
+        try {
+            RefundResponseDTO refund = refundService.processRefund(refundId);
+            (refund.getStatus() == RefundStatus.COMPLETED ? result.succeeded : result.failed).incrementAndGet();
+        } catch (RuntimeException e) {
+            // Left as it was, e.g. no longer PENDING or the amount is no longer available
+            result.skipped.incrementAndGet();
+            result.lastError.set("Refund " + refundId + ": " + e.getMessage());
+            log.warn("Refund job skipped refund {}: {}", refundId, e.getMessage());
+        }
+    }
+
+    // A longer message would fail the update, and with it the checkpoint or the status change
+    private static String truncate(String error) {
+        return error == null || error.length() <= RefundJob.MAX_LAST_ERROR_LENGTH
+                ? error : error.substring(0, RefundJob.MAX_LAST_ERROR_LENGTH);
+    }
+
+    private static Specification<Refund> filter(RefundJob job) {
+        // Never fall through to every pending refund, e.g. for a job stored without any filter
+        if (job.getOrderIds() == null && job.getCreatedFrom() == null && job.getCreatedTo() == null) {
+            throw new InvalidRefundJobException("Refund job " + job.getId() + " has no orderIds, createdFrom or createdTo");
+        }
+        List<Long> orderIds = job.getOrderIds() == null ? null : Arrays.stream(job.getOrderIds().split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+        return Specification.where(hasStatus(RefundStatus.PENDING))
+                .and(forOrders(orderIds))
+                .and(createdFrom(job.getCreatedFrom()))
+                .and(createdTo(job.getCreatedTo()));
+    }
+
+    private RefundJob findJob(Long id) {
+        return refundJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found with id: " + id));
+    }
+
+    private RefundJobResponseDTO mapToResponseDTO(RefundJob job) {
+        RefundJobResponseDTO dto = new RefundJobResponseDTO();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus());
+        dto.setOrderIds(job.getOrderIds() == null ? null : Arrays.stream(job.getOrderIds().split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList()));
+        dto.setCreatedFrom(job.getCreatedFrom());
+        dto.setCreatedTo(job.getCreatedTo());
+        dto.setTotalRefunds(job.getTotalRefunds());
+        dto.setProcessedCount(job.getProcessedCount());
+        dto.setSucceededCount(job.getSucceededCount());
+        dto.setFailedCount(job.getFailedCount());
+        dto.setSkippedCount(job.getSkippedCount());
+        dto.setLastRefundId(job.getLastRefundId());
+        dto.setRefundsPerSecond(job.getActiveMillis() > 0
+                ? Math.round(job.getProcessedCount() * 10_000.0 / job.getActiveMillis()) / 10.0 : null);
+        dto.setLastError(job.getLastError());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        return dto;
+    }
+
+    private static final class ChunkResult {
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicReference<String> lastError = new AtomicReference<>();
+    }
+}
@@ -16,7 +16,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
@@ -30,6 +29,7 @@ public class RefundService {
     private final RefundRepository refundRepository;
     private final PaymentRepository paymentRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
+    private final BusinessIdGenerator businessIdGenerator;
     private final Random random = new Random();
 
     @Transactional
@@ -44,21 +44,12 @@ public class RefundService {
             throw new InvalidPaymentStateException("Only completed or partially refunded payments can be refunded");
         }
 
-        // 3. Calculate already refunded amount
-        BigDecimal alreadyRefunded = refundRepository.findByPaymentId(requestDTO.getPaymentId()).stream()
-                .filter(r -> r.getStatus() == RefundStatus.COMPLETED)
-                .map(Refund::getRefundedAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 3. Validate refund amount against what has been refunded so far
+        checkRefundable(payment, requestDTO.getAmount());
 
-        // 4. Validate refund amount
-        BigDecimal availableForRefund = payment.getAmount().subtract(alreadyRefunded);
-        if (requestDTO.getAmount().compareTo(availableForRefund) > 0) {
-            throw new InsufficientRefundAmountException("Refund amount exceeds available amount. Available: " + availableForRefund);
-        }
-
-        // 5. Create refund
+        // 4. Create refund
         Refund refund = new Refund();
-        refund.setRefundId(generateRefundId());
+        refund.setRefundId(businessIdGenerator.nextRefundId());
         refund.setPaymentId(requestDTO.getPaymentId());
         refund.setOrderId(payment.getOrderId());
         refund.setAmount(requestDTO.getAmount());
@@ -76,15 +67,22 @@ public class RefundService {
 
     @Transactional
     public RefundResponseDTO processRefund(Long id) {
-        Refund refund = refundRepository.findById(id)
+        Long paymentId = refundRepository.findPaymentIdById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund not found with id: " + id));
+
+        // Refunds of one payment are processed one at a time: the payment is locked before its
+        // refunded total is checked, and the refund is read under that lock so its status is current
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+        Refund refund = refundRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Refund not found with id: " + id));
 
         if (refund.getStatus() != RefundStatus.PENDING) {
             throw new InvalidPaymentStateException("Refund is not in PENDING status");
         }
 
-        Payment payment = paymentRepository.findById(refund.getPaymentId())
-                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+        // Checked again: other refunds of the payment may have completed since this one was created
+        checkRefundable(payment, refund.getAmount());
 
         refund.setStatus(RefundStatus.PROCESSING);
         refundRepository.save(refund);
@@ -98,13 +96,9 @@ public class RefundService {
             refund.setGatewayRefundId("REF-GW-" + UUID.randomUUID().toString());
             refund.setProcessedAt(LocalDateTime.now());
 
-            // Update payment status
-            BigDecimal totalRefunded = refundRepository.findByPaymentId(payment.getId()).stream()
-                    .filter(r -> r.getStatus() == RefundStatus.COMPLETED)
-                    .map(Refund::getRefundedAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            totalRefunded = totalRefunded.add(refund.getRefundedAmount());
+            // Update payment status; the payment version stays as a backstop to the lock
+            BigDecimal totalRefunded = payment.getRefundedTotal().add(refund.getRefundedAmount());
+            payment.setRefundedTotal(totalRefunded);
 
             if (totalRefunded.compareTo(payment.getAmount()) >= 0) {
                 payment.setStatus(PaymentStatus.REFUNDED);
@@ -115,7 +109,7 @@ public class RefundService {
 
             // Create refund transaction
             PaymentTransaction transaction = new PaymentTransaction();
-            transaction.setTransactionId(generateTransactionId());
+            transaction.setTransactionId(businessIdGenerator.nextTransactionId());
             transaction.setTransactionType(TransactionType.REFUND);
             transaction.setAmount(refund.getAmount());
             transaction.setStatus(TransactionStatus.SUCCESS);
@@ -192,19 +186,11 @@ public class RefundService {
         log.info("Refund cancelled: {}", refund.getRefundId());
     }
 
-    private String generateRefundId() {
-        LocalDateTime now = LocalDateTime.now();
-        String datePart = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = refundRepository.count() + 1;
-        String sequencePart = String.format("%05d", count);
-        return "REF-" + datePart + "-" + sequencePart;
-    }
-
-    private String generateTransactionId() {
-        LocalDateTime now = LocalDateTime.now();
-        String datePart = now.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String randomPart = String.format("%04d", random.nextInt(10000));
-        return "TXN-" + datePart + "-" + randomPart;
+    private void checkRefundable(Payment payment, BigDecimal amount) {
+        BigDecimal availableForRefund = payment.getAmount().subtract(payment.getRefundedTotal());
+        if (amount.compareTo(availableForRefund) > 0) {
+            throw new InsufficientRefundAmountException("Refund amount exceeds available amount. Available: " + availableForRefund);
+        }
     }
 
     private RefundResponseDTO mapToResponseDTO(Refund refund) {
@@ -0,0 +1,76 @@
+-- Baseline of the tables owned by payment-service, as Hibernate created them with ddl-auto: update.
+-- IF NOT EXISTS keeps this a no-op on databases that already have them (see spring.flyway in
+-- application.yml); parent tables come first for the foreign keys.
+
+create table if not exists id_sequences (
+    next_value bigint not null,
+    name varchar(50) not null,
+    primary key (name)
+) engine=InnoDB;
+
+create table if not exists payments (
+    amount decimal(10,2) not null,
+    created_at datetime(6),
+    failed_at datetime(6),
+    id bigint not null auto_increment,
+    order_id bigint not null,
+    paid_at datetime(6),
+    refunded_at datetime(6),
+    updated_at datetime(6),
+    user_id bigint not null,
+    account_number varchar(255),
+    bank_name varchar(255),
+    card_brand varchar(255),
+    card_last4digits varchar(255),
+    currency varchar(255) not null,
+    customer_email varchar(255),
+    customer_phone varchar(255),
+    description varchar(255),
+    failure_reason varchar(255),
+    gateway_response varchar(255),
+    gateway_transaction_id varchar(255),
+    order_number varchar(255) not null,
+    payment_id varchar(255) not null,
+    upi_id varchar(255),
+    wallet_provider varchar(255),
+    payment_gateway enum ('BRAINTREE','INTERNAL','PAYPAL','RAZORPAY','SQUARE','STRIPE'),
+    payment_method enum ('CASH_ON_DELIVERY','CREDIT_CARD','DEBIT_CARD','NET_BANKING','PAYPAL','STRIPE','UPI','WALLET') not null,
+    status enum ('CANCELLED','COMPLETED','FAILED','PARTIALLY_REFUNDED','PENDING','PROCESSING','REFUNDED') not null,
+    primary key (id),
+    constraint UKt4ffsaqe8d6i83gs100u2y3l1 unique (payment_id)
+) engine=InnoDB;
+
+create table if not exists payment_transactions (
+    amount decimal(10,2) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    payment_id bigint not null,
+    gateway_response varchar(255),
+    gateway_transaction_id varchar(255),
+    remarks varchar(255),
+    transaction_id varchar(255) not null,
+    status enum ('FAILED','PENDING','REVERSED','SUCCESS') not null,
+    transaction_type enum ('AUTHORIZATION','CAPTURE','CHARGE','PARTIAL_REFUND','REFUND','VOID') not null,
+    primary key (id),
+    constraint UKlsp8jh693lih2txq7dl4bdnpx unique (transaction_id),
+    constraint FKgu8q4u0cjr8aljtknj557g2i8 foreign key (payment_id) references payments (id)
+) engine=InnoDB;
+
+create table if not exists refunds (
+    amount decimal(10,2) not null,
+    refunded_amount decimal(10,2) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    initiated_by bigint,
+    order_id bigint not null,
+    payment_id bigint not null,
+    processed_at datetime(6),
+    updated_at datetime(6),
+    gateway_refund_id varchar(255),
+    refund_id varchar(255) not null,
+    remarks varchar(255),
+    reason enum ('CUSTOMER_REQUEST','DUPLICATE_PAYMENT','FRAUDULENT_TRANSACTION','ORDER_CANCELLED','OTHER','PRODUCT_DEFECTIVE','PRODUCT_RETURN','WRONG_PRODUCT') not null,
+    status enum ('CANCELLED','COMPLETED','FAILED','PENDING','PROCESSING') not null,
+    primary key (id),
+    constraint UK9985dy9h3laa0hruo2ip09oeb unique (refund_id)
+) engine=InnoDB;
@@ -0,0 +1,27 @@
+-- Indexes for the payment-service repository queries that filtered or sorted on unindexed columns.
+-- V1 only creates missing tables, so every index an existing table needs is created here.
+-- Indexes walked for newest first listings are descending, so the scan runs forward in listing order.
+
+-- findPage, findPageAfter, findByDateRange, streamByDateRange
+create index idx_payments_created_at_id on payments (created_at desc, id desc);
+
+-- findByUserIdOrderByCreatedAtDesc
+create index idx_payments_user_id_created_at on payments (user_id, created_at);
+
+-- findByStatus
+create index idx_payments_status on payments (status);
+
+-- findByOrderId, existsByOrderId
+create index idx_payments_order_id on payments (order_id);
+
+-- PaymentTransactionRepository.findByPaymentIdOrderByCreatedAtDesc
+create index idx_payment_transactions_payment_id_created_at on payment_transactions (payment_id, created_at);
+
+-- RefundRepository.findByPaymentId
+create index idx_refunds_payment_id on refunds (payment_id);
+
+-- RefundRepository.findByOrderId, findByOrderIdOrderByCreatedAtDesc
+create index idx_refunds_order_id_created_at on refunds (order_id, created_at);
+
+-- RefundRepository.findByStatus
+create index idx_refunds_status on refunds (status);
@@ -0,0 +1,18 @@
+-- Idempotency-Key records for payment and refund creation (see IdempotencyService).
+
+create table idempotency_keys (
+    completed bit not null,
+    response_status integer,
+    created_at datetime(6),
+    expires_at datetime(6) not null,
+    id bigint not null auto_increment,
+    scope varchar(20) not null,
+    request_hash varchar(64) not null,
+    idempotency_key varchar(255) not null,
+    response_body text,
+    primary key (id),
+    constraint uk_idempotency_keys_scope_key unique (scope, idempotency_key)
+) engine=InnoDB;
+
+-- Purge of expired keys
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,13 @@
+-- Running total of completed refunds per payment, so refund validation no longer sums the refunds
+-- table, and a version column for optimistic locking of concurrent refunds.
+
+alter table payments add column refunded_total decimal(10,2) not null default 0;
+
+alter table payments add column version bigint not null default 0;
+
+update payments p
+set refunded_total = (
+    select coalesce(sum(r.refunded_amount), 0)
+    from refunds r
+    where r.payment_id = p.id and r.status = 'COMPLETED'
+);
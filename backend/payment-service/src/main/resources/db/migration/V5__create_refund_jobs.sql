@@ -0,0 +1,22 @@
+-- Bulk refund jobs with their checkpoint and counters (see RefundJobService).
+
+create table refund_jobs (
+    active_millis bigint not null,
+    created_at datetime(6),
+    created_from datetime(6),
+    created_to datetime(6),
+    failed_count bigint not null,
+    finished_at datetime(6),
+    id bigint not null auto_increment,
+    last_refund_id bigint not null,
+    processed_count bigint not null,
+    skipped_count bigint not null,
+    started_at datetime(6),
+    succeeded_count bigint not null,
+    total_refunds bigint not null,
+    updated_at datetime(6),
+    last_error varchar(255),
+    order_ids text,
+    status enum ('CANCELLED','COMPLETED','FAILED','RUNNING') not null,
+    primary key (id)
+) engine=InnoDB;
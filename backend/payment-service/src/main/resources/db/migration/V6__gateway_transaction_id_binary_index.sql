@@ -0,0 +1,8 @@
+-- Gateway transaction ids are opaque, case-sensitive identifiers. With a binary collation ORDER BY
+-- returns them in the order the settlement reconciliation merge-joins in (see ReconciliationService),
+-- and the index lets that stream read them in order instead of sorting.
+
+alter table payment_transactions
+    modify gateway_transaction_id varchar(255) character set utf8mb4 collate utf8mb4_bin;
+
+create index idx_payment_transactions_gateway_transaction_id on payment_transactions (gateway_transaction_id);
@@ -0,0 +1,6 @@
+-- Processing lease of idempotency keys whose request has not completed yet (see IdempotencyService).
+-- Keys left in progress by requests from before this migration can be taken over straight away.
+
+alter table idempotency_keys add column locked_until datetime(6);
+
+update idempotency_keys set locked_until = coalesce(created_at, expires_at) where completed = false;
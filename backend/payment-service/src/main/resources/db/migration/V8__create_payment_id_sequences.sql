@@ -0,0 +1,26 @@
+-- PAY-/TXN-/REF- sequences get a table of their own; id_sequences belongs to the order service.
+-- Counters reached so far are carried over, and missing rows are created here so instances never
+-- race to insert the first one. Stop running payment instances before applying: blocks they hold
+-- were reserved from the old table.
+
+create table if not exists payment_id_sequences (
+    next_value bigint not null,
+    name varchar(50) not null,
+    primary key (name)
+) engine=InnoDB;
+
+insert into payment_id_sequences (name, next_value)
+select name, next_value from id_sequences
+where name in ('PAYMENT_ID', 'TRANSACTION_ID', 'REFUND_ID');
+
+insert into payment_id_sequences (name, next_value)
+select 'PAYMENT_ID', coalesce(max(id), 0) + 1 from payments
+where not exists (select 1 from payment_id_sequences where name = 'PAYMENT_ID');
+
+insert into payment_id_sequences (name, next_value)
+select 'TRANSACTION_ID', 1 from (select 1) seed
+where not exists (select 1 from payment_id_sequences where name = 'TRANSACTION_ID');
+
+insert into payment_id_sequences (name, next_value)
+select 'REFUND_ID', coalesce(max(id), 0) + 1 from refunds
+where not exists (select 1 from payment_id_sequences where name = 'REFUND_ID');
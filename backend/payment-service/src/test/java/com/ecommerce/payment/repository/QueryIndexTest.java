@@ -0,0 +1,85 @@
+package com.ecommerce.payment.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs the Flyway migrations on H2 in MySQL mode and checks that EXPLAIN plans each hot repository
+ * query on the index meant for it. The SQL is the shape Hibernate generates, with literal values.
+ */
+class QueryIndexTest {
+
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:payment;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).table("flyway_schema_history_payment").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	static Stream<Arguments> hotQueries() {
+		return Stream.of(
+				arguments("findPage",
+						"select p.id from payments p order by p.created_at desc, p.id desc limit 20",
+						"idx_payments_created_at_id"),
+				arguments("findPageAfter",
+						"select p.id from payments p where p.created_at < timestamp '2024-01-15 10:00:00' "
+								+ "or (p.created_at = timestamp '2024-01-15 10:00:00' and p.id < 100) "
+								+ "order by p.created_at desc, p.id desc limit 20",
+						"idx_payments_created_at_id"),
+				arguments("findByDateRange",
+						"select p.id from payments p where p.created_at between timestamp '2024-01-01 00:00:00' "
+								+ "and timestamp '2024-02-01 00:00:00'",
+						"idx_payments_created_at_id"),
+				arguments("findByUserIdOrderByCreatedAtDesc",
+						"select p.id from payments p where p.user_id = 7 order by p.created_at desc",
+						"idx_payments_user_id_created_at"),
+				arguments("findByStatus",
+						"select p.id from payments p where p.status = 'COMPLETED'",
+						"idx_payments_status"),
+				arguments("findByOrderId",
+						"select p.id from payments p where p.order_id = 7",
+						"idx_payments_order_id"),
+				arguments("PaymentTransactionRepository.findByPaymentIdOrderByCreatedAtDesc",
+						"select pt.id from payment_transactions pt where pt.payment_id = 7 order by pt.created_at desc",
+						"idx_payment_transactions_payment_id_created_at"),
+				arguments("PaymentTransactionRepository.streamLedgerByGatewayTransactionId",
+						"select pt.gateway_transaction_id from payment_transactions pt join payments p on p.id = pt.payment_id "
+								+ "where pt.gateway_transaction_id is not null and pt.created_at >= timestamp '2024-01-01 00:00:00' "
+								+ "and pt.created_at < timestamp '2024-01-02 00:00:00' order by pt.gateway_transaction_id",
+						"idx_payment_transactions_gateway_transaction_id"),
+				arguments("RefundRepository.findByPaymentId",
+						"select r.id from refunds r where r.payment_id = 7",
+						"idx_refunds_payment_id"),
+				arguments("RefundRepository.findByOrderIdOrderByCreatedAtDesc",
+						"select r.id from refunds r where r.order_id = 7 order by r.created_at desc",
+						"idx_refunds_order_id_created_at"),
+				arguments("RefundRepository.findByStatus",
+						"select r.id from refunds r where r.status = 'PENDING'",
+						"idx_refunds_status"),
+				arguments("IdempotencyRecordRepository.deleteExpired",
+						"delete from idempotency_keys where expires_at < timestamp '2024-01-15 10:00:00'",
+						"idx_idempotency_keys_expires_at"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("hotQueries")
+	void usesIndex(String query, String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+
+		assertThat(plan).as(query).contains("/* public." + index);
+	}
+
+}
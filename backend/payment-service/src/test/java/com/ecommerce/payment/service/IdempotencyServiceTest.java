@@ -0,0 +1,200 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.IdempotencyRecord;
+import com.ecommerce.payment.exception.IdempotencyKeyConflictException;
+import com.ecommerce.payment.exception.IdempotencyKeyMismatchException;
+import com.ecommerce.payment.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+	private static final String SCOPE = "payments";
+	private static final String KEY = "checkout-1";
+	private static final Map<String, Object> REQUEST = Map.of("orderId", 1, "amount", 10);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private IdempotencyRecordRepository repository;
+	private IdempotencyService idempotencyService;
+	private AtomicInteger actionRuns;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(IdempotencyRecordRepository.class);
+		idempotencyService = new IdempotencyService(repository, objectMapper,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), 86_400_000, 120_000, 100);
+		actionRuns = new AtomicInteger();
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.empty());
+		when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+			IdempotencyRecord record = invocation.getArgument(0);
+			record.setId(1L);
+			return record;
+		});
+		when(repository.complete(any(), any(), anyInt(), anyString())).thenReturn(1);
+	}
+
+	@Test
+	void firstRequestClaimsKeyAndStoresResponse() {
+		ResponseEntity<String> response = execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(actionRuns).hasValue(1);
+		verify(repository).complete(eq(1L), any(), eq(201), eq("\"created\""));
+	}
+
+	@Test
+	void retryOfCompletedRequestIsReplayedFromTheCache() {
+		execute();
+		ResponseEntity<String> replayed = execute();
+
+		assertThat(actionRuns).hasValue(1);
+		assertThat(replayed.getBody()).isEqualTo("created");
+		assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+	}
+
+	@Test
+	void retryOfCompletedRequestIsReplayedFromTheDatabase() {
+		IdempotencyRecord stored = record(LocalDateTime.now().plusHours(1), null);
+		stored.setCompleted(true);
+		stored.setResponseStatus(201);
+		stored.setResponseBody("\"created\"");
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.of(stored));
+
+		ResponseEntity<String> replayed = execute();
+
+		assertThat(actionRuns).hasValue(0);
+		assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(replayed.getBody()).isEqualTo("created");
+	}
+
+	@Test
+	void sameKeyWithDifferentRequestIsRejected() {
+		IdempotencyRecord stored = record(LocalDateTime.now().plusHours(1), LocalDateTime.now().plusMinutes(1));
+		stored.setRequestHash("0".repeat(64));
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.of(stored));
+
+		assertThatThrownBy(this::execute).isInstanceOf(IdempotencyKeyMismatchException.class);
+		assertThat(actionRuns).hasValue(0);
+	}
+
+	@Test
+	void retryWhileLeaseIsHeldIsRejected() {
+		IdempotencyRecord inProgress = record(LocalDateTime.now().plusHours(1), LocalDateTime.now().plusMinutes(1));
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.of(inProgress));
+
+		assertThatThrownBy(this::execute).isInstanceOf(IdempotencyKeyConflictException.class);
+		assertThat(actionRuns).hasValue(0);
+		verify(repository, never()).takeOver(any(), any(), any());
+	}
+
+	@Test
+	void retryAfterLeaseRanOutTakesKeyOver() {
+		LocalDateTime expiredLease = LocalDateTime.now().minusSeconds(1);
+		IdempotencyRecord abandoned = record(LocalDateTime.now().plusHours(1), expiredLease);
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.of(abandoned));
+		when(repository.takeOver(eq(5L), eq(expiredLease), any())).thenReturn(1);
+
+		ResponseEntity<String> response = execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(actionRuns).hasValue(1);
+		verify(repository).complete(eq(5L), any(), eq(201), anyString());
+		verify(repository, never()).saveAndFlush(any());
+	}
+
+	@Test
+	void takeOverLostToAnotherRequestIsRejected() {
+		IdempotencyRecord abandoned = record(LocalDateTime.now().plusHours(1), LocalDateTime.now().minusSeconds(1));
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.of(abandoned));
+		when(repository.takeOver(any(), any(), any())).thenReturn(0);
+
+		assertThatThrownBy(this::execute).isInstanceOf(IdempotencyKeyConflictException.class);
+		assertThat(actionRuns).hasValue(0);
+	}
+
+	@Test
+	void requestThatOverranItsLeaseIsRolledBack() {
+		when(repository.complete(any(), any(), anyInt(), anyString())).thenReturn(0);
+
+		assertThatThrownBy(this::execute).isInstanceOf(IdempotencyKeyConflictException.class);
+		// The release is conditional on the same lease, so it cannot remove the new holder's key
+		verify(repository).release(eq(1L), any());
+	}
+
+	@Test
+	void failedRequestReleasesItsKey() {
+		Supplier<ResponseEntity<String>> failing = () -> {
+			throw new IllegalStateException("order-service unavailable");
+		};
+
+		assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, REQUEST, String.class, failing))
+				.isInstanceOf(IllegalStateException.class);
+		verify(repository).release(eq(1L), any());
+		verify(repository, never()).complete(any(), any(), anyInt(), anyString());
+	}
+
+	@Test
+	void expiredKeyIsReplacedByNewClaim() {
+		IdempotencyRecord expired = record(LocalDateTime.now().minusSeconds(1), null);
+		expired.setCompleted(true);
+		expired.setRequestHash("0".repeat(64));
+		when(repository.findByScopeAndIdempotencyKey(SCOPE, KEY)).thenReturn(Optional.of(expired));
+
+		ResponseEntity<String> response = execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(actionRuns).hasValue(1);
+		verify(repository).delete(expired);
+		verify(repository).saveAndFlush(any());
+	}
+
+	private ResponseEntity<String> execute() {
+		return idempotencyService.execute(SCOPE, KEY, REQUEST, String.class, () -> {
+			actionRuns.incrementAndGet();
+			return ResponseEntity.status(HttpStatus.CREATED).body("created");
+		});
+	}
+
+	private IdempotencyRecord record(LocalDateTime expiresAt, LocalDateTime lockedUntil) {
+		IdempotencyRecord record = new IdempotencyRecord();
+		record.setId(5L);
+		record.setScope(SCOPE);
+		record.setIdempotencyKey(KEY);
+		record.setRequestHash(hash(REQUEST));
+		record.setExpiresAt(expiresAt);
+		record.setLockedUntil(lockedUntil);
+		return record;
+	}
+
+	private String hash(Object request) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
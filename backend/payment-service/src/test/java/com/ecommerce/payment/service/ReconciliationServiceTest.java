@@ -0,0 +1,164 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.entity.TransactionStatus;
+import com.ecommerce.payment.entity.TransactionType;
+import com.ecommerce.payment.exception.InvalidSettlementFileException;
+import com.ecommerce.payment.repository.LedgerEntry;
+import com.ecommerce.payment.repository.PaymentTransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Joins an in-memory settlement file against an in-memory ledger and reads the report back, one
+ * JSON line per mismatch followed by the summary.
+ */
+class ReconciliationServiceTest {
+
+	private static final String HEADER = "gateway_transaction_id,amount,currency\n";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private PaymentTransactionRepository repository;
+	private ReconciliationService reconciliationService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(PaymentTransactionRepository.class);
+		reconciliationService = new ReconciliationService(repository, objectMapper);
+	}
+
+	@Test
+	void reportsTransactionsMissingOnEitherSide() throws IOException {
+		ledger(entry("GW-1", TransactionStatus.SUCCESS, "10.00", "USD"),
+				entry("GW-3", TransactionStatus.SUCCESS, "30.00", "USD"),
+				entry("GW-4", TransactionStatus.FAILED, "40.00", "USD"),
+				entry("GW-5", TransactionStatus.SUCCESS, "50.00", "USD"));
+
+		List<JsonNode> report = reconcile(HEADER + "GW-1,10.00,USD\nGW-2,20.00,USD\nGW-5,50.00,usd\nGW-6,60.00,USD\n");
+
+		assertThat(report).hasSize(4);
+		assertMismatch(report.get(0), "MISSING_IN_LEDGER", "GW-2");
+		assertThat(report.get(0).get("lineNumber").asLong()).isEqualTo(3);
+		// GW-4 never settled, so its absence from the file is expected
+		assertMismatch(report.get(1), "MISSING_IN_SETTLEMENT", "GW-3");
+		assertMismatch(report.get(2), "MISSING_IN_LEDGER", "GW-6");
+		assertSummary(report.get(3), true, 4, 4, 2, 3);
+	}
+
+	@Test
+	void reportsEveryFieldThatDiffers() throws IOException {
+		ledger(entry("GW-1", TransactionStatus.SUCCESS, "10.00", "USD"),
+				entry("GW-2", TransactionStatus.PENDING, "25.00", "EUR"),
+				entry("GW-3", TransactionStatus.SUCCESS, "30.00", "USD"));
+
+		List<JsonNode> report = reconcile(HEADER + "GW-1,10.5,USD\nGW-2,20.00,USD\nGW-3,-30,USD\n");
+
+		assertThat(report).extracting(line -> line.get("type").asText())
+				.containsExactly("AMOUNT_MISMATCH", "STATUS_MISMATCH", "AMOUNT_MISMATCH", "CURRENCY_MISMATCH", "SUMMARY");
+		assertThat(report.get(0).get("settlementAmount").decimalValue()).isEqualByComparingTo("10.5");
+		assertThat(report.get(0).get("ledgerAmount").decimalValue()).isEqualByComparingTo("10.00");
+		assertThat(report.get(1).get("ledgerStatus").asText()).isEqualTo("PENDING");
+		// A refund settled as a negative amount matches its positive ledger entry
+		assertSummary(report.get(4), true, 3, 3, 1, 4);
+	}
+
+	@Test
+	void reportsDuplicatesAndInvalidLinesWithoutStopping() throws IOException {
+		ledger(entry("GW-1", TransactionStatus.SUCCESS, "10.00", "USD"),
+				entry("GW-1", TransactionStatus.SUCCESS, "10.00", "USD"),
+				entry("GW-2", TransactionStatus.SUCCESS, "20.00", "USD"));
+
+		List<JsonNode> report = reconcile(HEADER + "GW-1,10.00,USD\nGW-1,10.00,USD\nGW-2,abc,USD\n\"GW-2\",20.00,USD\n");
+
+		assertThat(report).extracting(line -> line.get("type").asText())
+				.containsExactly("DUPLICATE_IN_SETTLEMENT", "INVALID_LINE", "DUPLICATE_IN_LEDGER", "SUMMARY");
+		assertThat(report.get(1).get("lineNumber").asLong()).isEqualTo(4);
+		assertSummary(report.get(3), true, 4, 3, 2, 3);
+	}
+
+	@Test
+	void unsortedFileStopsTheRun() throws IOException {
+		ledger(entry("GW-1", TransactionStatus.SUCCESS, "10.00", "USD"),
+				entry("GW-2", TransactionStatus.SUCCESS, "20.00", "USD"));
+
+		List<JsonNode> report = reconcile(HEADER + "GW-2,20.00,USD\nGW-1,10.00,USD\n");
+
+		JsonNode summary = report.get(report.size() - 1);
+		assertThat(summary.get("completed").asBoolean()).isFalse();
+		assertThat(summary.get("error").asText()).contains("not sorted");
+	}
+
+	@Test
+	void unorderedLedgerStopsTheRun() throws IOException {
+		ledger(entry("GW-2", TransactionStatus.SUCCESS, "20.00", "USD"),
+				entry("GW-1", TransactionStatus.SUCCESS, "10.00", "USD"));
+
+		List<JsonNode> report = reconcile(HEADER + "GW-1,10.00,USD\nGW-2,20.00,USD\n");
+
+		JsonNode summary = report.get(report.size() - 1);
+		assertThat(summary.get("completed").asBoolean()).isFalse();
+		assertThat(summary.get("error").asText()).contains("Ledger is not ordered");
+	}
+
+	@Test
+	void fileWithoutRequiredColumnsIsRejectedBeforeReconciling() {
+		assertThatThrownBy(() -> reconciliationService.openSettlementFile(stream("id,amount,currency\nGW-1,10.00,USD\n")))
+				.isInstanceOf(InvalidSettlementFileException.class);
+		assertThatThrownBy(() -> reconciliationService.openSettlementFile(stream("")))
+				.isInstanceOf(InvalidSettlementFileException.class);
+	}
+
+	private void ledger(LedgerEntry... entries) {
+		when(repository.streamLedgerByGatewayTransactionId(any(), any())).thenReturn(Stream.of(entries));
+	}
+
+	private List<JsonNode> reconcile(String settlementFile) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		reconciliationService.reconcile(reconciliationService.openSettlementFile(stream(settlementFile)), null, null, out);
+		List<JsonNode> report = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			report.add(objectMapper.readTree(line));
+		}
+		return report;
+	}
+
+	private static ByteArrayInputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static LedgerEntry entry(String gatewayTransactionId, TransactionStatus status, String amount, String currency) {
+		return new LedgerEntry(gatewayTransactionId, "TXN-" + gatewayTransactionId, "PAY-" + gatewayTransactionId,
+				TransactionType.CHARGE, status, new BigDecimal(amount), currency);
+	}
+
+	private static void assertMismatch(JsonNode line, String type, String gatewayTransactionId) {
+		assertThat(line.get("type").asText()).isEqualTo(type);
+		assertThat(line.get("gatewayTransactionId").asText()).isEqualTo(gatewayTransactionId);
+	}
+
+	private static void assertSummary(JsonNode summary, boolean completed, long settlementLines, long ledgerEntries,
+									  long matched, long mismatches) {
+		assertThat(summary.get("type").asText()).isEqualTo("SUMMARY");
+		assertThat(summary.get("completed").asBoolean()).isEqualTo(completed);
+		assertThat(summary.get("settlementLines").asLong()).isEqualTo(settlementLines);
+		assertThat(summary.get("ledgerEntries").asLong()).isEqualTo(ledgerEntries);
+		assertThat(summary.get("matched").asLong()).isEqualTo(matched);
+		assertThat(summary.get("mismatches").asLong()).isEqualTo(mismatches);
+	}
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.dto.RefundJobRequestDTO;
+import com.ecommerce.payment.dto.RefundResponseDTO;
+import com.ecommerce.payment.entity.Refund;
+import com.ecommerce.payment.entity.RefundJob;
+import com.ecommerce.payment.entity.RefundJobStatus;
+import com.ecommerce.payment.entity.RefundStatus;
+import com.ecommerce.payment.exception.InvalidPaymentStateException;
+import com.ecommerce.payment.exception.InvalidRefundJobException;
+import com.ecommerce.payment.repository.RefundJobRepository;
+import com.ecommerce.payment.repository.RefundRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs jobs inline: both executors run their tasks on the calling thread, so a job has finished
+ * when startJob or resumeJob returns.
+ */
+class RefundJobServiceTest {
+
+	private static final long JOB_ID = 7L;
+
+	private RefundJobRepository refundJobRepository;
+	private RefundRepository refundRepository;
+	private RefundService refundService;
+	private ThreadPoolTaskExecutor jobExecutor;
+	private RefundJobService refundJobService;
+
+	@BeforeEach
+	void setUp() {
+		refundJobRepository = mock(RefundJobRepository.class);
+		refundRepository = mock(RefundRepository.class);
+		refundService = mock(RefundService.class);
+		jobExecutor = inlineExecutor();
+		refundJobService = new RefundJobService(refundJobRepository, refundRepository, refundService,
+				jobExecutor, inlineExecutor(), 2, 300_000);
+	}
+
+	@Test
+	void startJobRejectsRequestWithoutFilter() {
+		assertThatThrownBy(() -> refundJobService.startJob(new RefundJobRequestDTO()))
+				.isInstanceOf(InvalidRefundJobException.class);
+		assertThatThrownBy(() -> refundJobService.startJob(new RefundJobRequestDTO(List.of(), null, null)))
+				.isInstanceOf(InvalidRefundJobException.class);
+
+		verifyNoInteractions(refundRepository, refundJobRepository, jobExecutor, refundService);
+	}
+
+	@Test
+	void jobCheckpointsEveryChunkAndCompletes() {
+		RefundJob job = job(RefundJobStatus.RUNNING, 0L, LocalDateTime.now());
+		when(refundJobRepository.save(any())).thenReturn(job);
+		when(refundJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+		when(refundJobRepository.findStatusById(JOB_ID)).thenReturn(RefundJobStatus.RUNNING);
+		chunks(List.of(refund(1L, 10L), refund(2L, 10L)), List.of(refund(5L, 11L)), List.of());
+		processed(1L, RefundStatus.COMPLETED);
+		processed(2L, RefundStatus.FAILED);
+		when(refundService.processRefund(5L)).thenThrow(new InvalidPaymentStateException("Refund is not in PENDING status"));
+
+		refundJobService.startJob(new RefundJobRequestDTO(List.of(101L), null, null));
+
+		verify(refundJobRepository).checkpoint(eq(JOB_ID), eq(2L), eq(1L), eq(1L), eq(0L), anyLong(), isNull(), any());
+		verify(refundJobRepository).checkpoint(eq(JOB_ID), eq(5L), eq(0L), eq(0L), eq(1L), anyLong(),
+				startsWith("Refund 5: "), any());
+		verify(refundJobRepository).updateStatus(eq(JOB_ID), eq(RefundJobStatus.RUNNING), eq(RefundJobStatus.COMPLETED),
+				isNull(), any());
+	}
+
+	@Test
+	void cancelledJobStopsBeforeItsNextChunk() {
+		RefundJob job = job(RefundJobStatus.RUNNING, 0L, LocalDateTime.now());
+		when(refundJobRepository.save(any())).thenReturn(job);
+		when(refundJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+		when(refundJobRepository.findStatusById(JOB_ID)).thenReturn(RefundJobStatus.RUNNING, RefundJobStatus.CANCELLED);
+		chunks(List.of(refund(1L, 10L), refund(2L, 10L)), List.of(refund(5L, 11L)));
+		processed(1L, RefundStatus.COMPLETED);
+		processed(2L, RefundStatus.COMPLETED);
+
+		refundJobService.startJob(new RefundJobRequestDTO(List.of(101L), null, null));
+
+		verify(refundJobRepository).checkpoint(eq(JOB_ID), eq(2L), eq(2L), eq(0L), eq(0L), anyLong(), isNull(), any());
+		verify(refundService, never()).processRefund(5L);
+		verify(refundJobRepository, never()).updateStatus(any(), any(), eq(RefundJobStatus.COMPLETED), any(), any());
+	}
+
+	@Test
+	void failedJobResumesFromItsCheckpoint() {
+		LocalDateTime failedAt = LocalDateTime.now().minusMinutes(1);
+		RefundJob job = job(RefundJobStatus.FAILED, 2L, failedAt);
+		when(refundJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+		when(refundJobRepository.resume(eq(JOB_ID), eq(RefundJobStatus.FAILED), eq(failedAt), any())).thenReturn(1);
+		when(refundJobRepository.findStatusById(JOB_ID)).thenReturn(RefundJobStatus.RUNNING);
+		chunks(List.of(refund(5L, 11L)), List.of());
+		processed(5L, RefundStatus.COMPLETED);
+
+		refundJobService.resumeJob(JOB_ID);
+
+		verify(refundJobRepository).checkpoint(eq(JOB_ID), eq(5L), eq(1L), eq(0L), eq(0L), anyLong(), isNull(), any());
+		verify(refundJobRepository).updateStatus(eq(JOB_ID), eq(RefundJobStatus.RUNNING), eq(RefundJobStatus.COMPLETED),
+				isNull(), any());
+	}
+
+	@Test
+	void runningJobWithRecentCheckpointCannotBeResumed() {
+		when(refundJobRepository.findById(JOB_ID))
+				.thenReturn(Optional.of(job(RefundJobStatus.RUNNING, 2L, LocalDateTime.now().minusSeconds(10))));
+
+		assertThatThrownBy(() -> refundJobService.resumeJob(JOB_ID)).isInstanceOf(InvalidRefundJobException.class);
+		verify(refundJobRepository, never()).resume(any(), any(), any(), any());
+	}
+
+	@Test
+	void runningJobWithoutRecentCheckpointIsResumedAsInterrupted() {
+		LocalDateTime lastCheckpoint = LocalDateTime.now().minusMinutes(10);
+		when(refundJobRepository.findById(JOB_ID))
+				.thenReturn(Optional.of(job(RefundJobStatus.RUNNING, 2L, lastCheckpoint)));
+		when(refundJobRepository.resume(eq(JOB_ID), eq(RefundJobStatus.RUNNING), eq(lastCheckpoint), any())).thenReturn(1);
+		when(refundJobRepository.findStatusById(JOB_ID)).thenReturn(RefundJobStatus.RUNNING);
+		chunks(List.of());
+
+		refundJobService.resumeJob(JOB_ID);
+
+		verify(refundJobRepository).updateStatus(eq(JOB_ID), eq(RefundJobStatus.RUNNING), eq(RefundJobStatus.COMPLETED),
+				isNull(), any());
+	}
+
+	@Test
+	void concurrentResumeLosesTheRace() {
+		when(refundJobRepository.findById(JOB_ID))
+				.thenReturn(Optional.of(job(RefundJobStatus.CANCELLED, 2L, LocalDateTime.now().minusMinutes(1))));
+		when(refundJobRepository.resume(any(), any(), any(), any())).thenReturn(0);
+
+		assertThatThrownBy(() -> refundJobService.resumeJob(JOB_ID)).isInstanceOf(InvalidRefundJobException.class);
+		verifyNoInteractions(jobExecutor);
+	}
+
+	@Test
+	void completedJobCannotBeResumed() {
+		when(refundJobRepository.findById(JOB_ID))
+				.thenReturn(Optional.of(job(RefundJobStatus.COMPLETED, 5L, LocalDateTime.now().minusMinutes(1))));
+
+		assertThatThrownBy(() -> refundJobService.resumeJob(JOB_ID)).isInstanceOf(InvalidRefundJobException.class);
+		verifyNoInteractions(jobExecutor);
+	}
+
+	private static ThreadPoolTaskExecutor inlineExecutor() {
+		ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+		doAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		}).when(executor).execute(any(Runnable.class));
+		return executor;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void chunks(List<Refund> first, List<Refund>... next) {
+		when(refundRepository.findBy(any(Specification.class), any())).thenReturn(first, (Object[]) next);
+	}
+
+	private void processed(Long refundId, RefundStatus status) {
+		RefundResponseDTO response = new RefundResponseDTO();
+		response.setId(refundId);
+		response.setStatus(status);
+		when(refundService.processRefund(refundId)).thenReturn(response);
+	}
+
+	private static RefundJob job(RefundJobStatus status, Long lastRefundId, LocalDateTime updatedAt) {
+		RefundJob job = new RefundJob();
+		job.setId(JOB_ID);
+		job.setOrderIds("101");
+		job.setStatus(status);
+		job.setLastRefundId(lastRefundId);
+		job.setUpdatedAt(updatedAt);
+		return job;
+	}
+
+	private static Refund refund(Long id, Long paymentId) {
+		Refund refund = new Refund();
+		refund.setId(id);
+		refund.setPaymentId(paymentId);
+		return refund;
+	}
+}
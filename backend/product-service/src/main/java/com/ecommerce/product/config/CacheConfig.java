@@ -0,0 +1,45 @@
+package com.ecommerce.product.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Local read-through caches for catalog reads. Entries are evicted when a product or category
+ * changes (see ProductCacheInvalidator); the TTL bounds staleness from writes made elsewhere,
+ * e.g. view and sold counts or another product-service instance.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_SKU = "productsBySku";
+    public static final String PRODUCT_LISTS = "productLists";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${product.cache.max-size:10000}") long maxSize,
+            @Value("${product.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${product.cache.list-ttl-seconds:60}") long listTtlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRODUCTS, caffeine(maxSize, ttlSeconds).build());
+        cacheManager.registerCustomCache(PRODUCTS_BY_SKU, caffeine(maxSize, ttlSeconds).build());
+        cacheManager.registerCustomCache(PRODUCT_LISTS, caffeine(100, listTtlSeconds).build());
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> caffeine(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats();
+    }
+}
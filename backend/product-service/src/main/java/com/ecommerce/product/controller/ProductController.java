@@ -1,11 +1,16 @@
 
 package com.ecommerce.product.controller;
 
+import com.ecommerce.product.dto.CursorPageResponseDTO;
+import com.ecommerce.product.dto.ProductQueryDTO;
 import com.ecommerce.product.dto.ProductRequestDTO;
 import com.ecommerce.product.dto.ProductResponseDTO;
+import com.ecommerce.product.dto.ProductSearchResponseDTO;
+import com.ecommerce.product.dto.ProductSuggestionDTO;
 import com.ecommerce.product.dto.ProductUpdateDTO;
 import com.ecommerce.product.entity.ProductStatus;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.service.ProductViewCounter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -22,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
@@ -29,7 +35,11 @@ import java.util.List;
 @Tag(name = "Product Management", description = "APIs for managing product catalog, inventory, pricing, search, and product information")
 public class ProductController {
 
+    // Added by other services' Feign clients and stripped by the API gateway from client requests
+    public static final String CALLER_SERVICE_HEADER = "X-Caller-Service";
+
     private final ProductService productService;
+    private final ProductViewCounter productViewCounter;
 
     @PostMapping
     @Operation(
@@ -76,11 +86,39 @@ public class ProductController {
     })
     public ResponseEntity<ProductResponseDTO> getProductById(
             @Parameter(description = "Product ID", example = "1", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Set by other services on internal calls; such lookups are not counted as product views", hidden = true)
+            @RequestHeader(value = CALLER_SERVICE_HEADER, required = false) String callerService) {
         ProductResponseDTO responseDTO = productService.getProductById(id);
+        // Lookups by other services are not product page views
+        if (callerService == null) {
+            productViewCounter.recordView(id);
+        }
         return ResponseEntity.ok(responseDTO);
     }
 
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get products by IDs",
+            description = "Retrieve up to 500 products in a single call, keyed by product ID. IDs that do not exist are omitted from the result. Used by other services to avoid one call per product."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Products retrieved successfully"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "More than 500 product IDs requested"
+            )
+    })
+    public ResponseEntity<Map<Long, ProductResponseDTO>> getProductsByIds(
+            @Parameter(description = "Product IDs", example = "1,2,3", required = true)
+            @RequestParam List<Long> ids) {
+        Map<Long, ProductResponseDTO> products = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/sku/{sku}")
     @Operation(
             summary = "Get product by SKU",
@@ -122,6 +160,54 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Get products page by page",
+            description = "Retrieve products newest first, one page at a time. Pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of products retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<ProductResponseDTO>> getProductsPage(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponseDTO<ProductResponseDTO> page = productService.getProductsPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/query")
+    @Operation(
+            summary = "Query products by any combination of filters",
+            description = "Filter products by category (including sub-categories), brand, price band, status, seller and featured flag in one query. Results are newest first, one page at a time; pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of matching products retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<ProductResponseDTO>> queryProducts(
+            @Parameter(description = "Only products of this category", example = "1")
+            @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Also match products of the category's sub-categories", example = "true")
+            @RequestParam(required = false) Boolean includeSubcategories,
+            @Parameter(description = "Only products of this brand", example = "Dell")
+            @RequestParam(required = false) String brand,
+            @Parameter(description = "Minimum price", example = "100.00")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price", example = "2000.00")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Only products with this status", example = "ACTIVE")
+            @RequestParam(required = false) ProductStatus status,
+            @Parameter(description = "Only products of this seller", example = "1")
+            @RequestParam(required = false) Long sellerId,
+            @Parameter(description = "Only featured (true) or non-featured (false) products", example = "true")
+            @RequestParam(required = false) Boolean featured,
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        ProductQueryDTO filter = new ProductQueryDTO(categoryId, includeSubcategories, brand, minPrice, maxPrice,
+                status, sellerId, featured);
+        CursorPageResponseDTO<ProductResponseDTO> page = productService.queryProducts(filter, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/status/{status}")
     @Operation(
             summary = "Get products by status",
@@ -223,7 +309,7 @@ public class ProductController {
     @GetMapping("/search")
     @Operation(
             summary = "Search products",
-            description = "Search products by keyword matching product name, description, SKU, or brand. Useful for search functionality."
+            description = "Search products by keyword matching product name, description, SKU, or brand, best matches first (at most 100). Useful for search functionality."
     )
     @ApiResponse(
             responseCode = "200",
@@ -240,6 +326,58 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Suggest products as the user types",
+            description = "Product names, brands and category names with a word starting with the prefix, best sellers first. Served from memory, meant to be called on every keystroke."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Suggestions retrieved successfully",
+            content = @Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = ProductSuggestionDTO.class))
+            )
+    )
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @Parameter(description = "What the user typed so far", example = "iph", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "Number of suggestions, at most 10", example = "10")
+            @RequestParam(required = false) Integer limit) {
+        List<ProductSuggestionDTO> suggestions = productService.suggestProducts(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/search/faceted")
+    @Operation(
+            summary = "Search products with facets",
+            description = "Ranked full-text search over product name, brand, description and SKU, filtered by category, brand and price, one page at a time. Returns category, brand and price range counts over all matches."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Search results retrieved successfully",
+            content = @Content(schema = @Schema(implementation = ProductSearchResponseDTO.class))
+    )
+    public ResponseEntity<ProductSearchResponseDTO> searchProductsFaceted(
+            @Parameter(description = "Search keyword, omit to browse all products", example = "gaming laptop")
+            @RequestParam(required = false) String keyword,
+            @Parameter(description = "Only products of this category", example = "1")
+            @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Only products of this brand (exact value from the brand facet)", example = "Dell")
+            @RequestParam(required = false) String brand,
+            @Parameter(description = "Minimum price", example = "100.00")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price", example = "2000.00")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Page number, starting at 0", example = "0")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        ProductSearchResponseDTO results = productService.searchProducts(keyword, categoryId, brand,
+                minPrice, maxPrice, page, size);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/price-range")
     @Operation(
             summary = "Get products by price range",
@@ -0,0 +1,14 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+    private String value; // Filter value: brand, category id or price range, e.g. "50-100"
+    private String label; // Display name: the category name for categories, otherwise the value
+    private Long count;
+}
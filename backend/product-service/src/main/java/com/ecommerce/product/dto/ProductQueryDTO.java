@@ -0,0 +1,23 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.entity.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Filters of /api/products/query; null fields do not filter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductQueryDTO {
+    private Long categoryId;
+    private Boolean includeSubcategories; // Also match products of the category's descendants, true by default
+    private String brand;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private ProductStatus status;
+    private Long sellerId;
+    private Boolean featured;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponseDTO {
+    private List<ProductResponseDTO> items; // Best match first
+    private Long totalHits;
+    private Integer page;
+    private Integer size;
+    private Map<String, List<FacetCountDTO>> facets; // Keyed by "category", "brand" and "price"
+}
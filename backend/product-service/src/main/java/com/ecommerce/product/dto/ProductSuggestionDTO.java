@@ -0,0 +1,15 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestionDTO {
+    private String text;
+    private String type; // PRODUCT, BRAND or CATEGORY
+    private Long productId; // Only for PRODUCT suggestions
+    private Long soldCount; // Summed over the brand's or category's products
+}
@@ -11,7 +11,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created_at_id", columnList = "createdAt DESC, id DESC"),
+        @Index(name = "idx_products_status_sold_count", columnList = "status, soldCount DESC"),
+        @Index(name = "idx_products_status_created_at", columnList = "status, createdAt DESC"),
+        @Index(name = "idx_products_updated_at", columnList = "updatedAt"),
+        // Composite query filters (see ProductSpecifications): equality column first, then the page order
+        @Index(name = "idx_products_category_created_at_id", columnList = "category_id, createdAt DESC, id DESC"),
+        @Index(name = "idx_products_brand_created_at_id", columnList = "brand, createdAt DESC, id DESC"),
+        @Index(name = "idx_products_seller_created_at_id", columnList = "sellerId, createdAt DESC, id DESC"),
+        @Index(name = "idx_products_featured_created_at_id", columnList = "isFeatured, createdAt DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -60,6 +70,8 @@ public class Product {
 
     private Boolean isFeatured = false;
 
+    // Only incremented in bulk by ProductViewCounter, never written back from a loaded entity
+    @Column(updatable = false)
     private Integer viewCount = 0;
 
     private Integer soldCount = 0;
@@ -0,0 +1,7 @@
+package com.ecommerce.product.exception;
+
+public class InvalidPageCursorException extends RuntimeException {
+    public InvalidPageCursorException(String message) {
+        super(message);
+    }
+}
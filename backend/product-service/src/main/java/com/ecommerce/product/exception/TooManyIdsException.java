@@ -0,0 +1,7 @@
+package com.ecommerce.product.exception;
+
+public class TooManyIdsException extends RuntimeException {
+    public TooManyIdsException(String message) {
+        super(message);
+    }
+}
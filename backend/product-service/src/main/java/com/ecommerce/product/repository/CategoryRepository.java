@@ -22,6 +22,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     List<Category> findByParentId(Long parentId); // Sub-categories
 
+    List<Category> findAllByOrderByIdAsc();
+
+    boolean existsByParentId(Long parentId);
+
     boolean existsByName(String name);
 
     boolean existsBySlug(String slug);
@@ -2,24 +2,51 @@ package com.ecommerce.product.repository;
 
 import com.ecommerce.product.entity.Product;
 import com.ecommerce.product.entity.ProductStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     Optional<Product> findBySku(String sku);
 
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllByIdWithCategory(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id = :id")
+    Optional<Product> findByIdWithCategory(@Param("id") Long id);
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.category.id = :categoryId")
+    List<Product> findByCategoryIdWithCategory(@Param("categoryId") Long categoryId);
+
+    // Search index build and sync (see ProductSearchIndex)
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id > :id ORDER BY p.id")
+    List<Product> findBatchAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.updatedAt >= :since")
+    List<Product> findUpdatedSince(@Param("since") LocalDateTime since);
+
     List<Product> findByStatus(ProductStatus status);
 
     List<Product> findByCategoryId(Long categoryId);
 
+    boolean existsByCategoryId(Long categoryId);
+
+    // Non-deleted products per category, as [categoryId, count] rows
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.category IS NOT NULL AND p.status <> 'DELETED' " +
+            "GROUP BY p.category.id")
+    List<Object[]> countProductsByCategory();
+
     List<Product> findByBrand(String brand);
 
     List<Product> findBySellerId(Long sellerId);
@@ -33,11 +60,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
                                    @Param("maxPrice") BigDecimal maxPrice);
 
-    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.soldCount DESC")
-    List<Product> findBestSellers();
+    // Top-N queries: the Pageable limit is applied in SQL, walking idx_products_status_sold_count / _created_at
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.status = 'ACTIVE' ORDER BY p.soldCount DESC")
+    List<Product> findBestSellers(Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
-    List<Product> findNewArrivals();
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
+    List<Product> findNewArrivals(Pageable pageable);
 
     boolean existsBySku(String sku);
-}
\ No newline at end of file
+
+    // Keyset pagination, newest first (see PageCursor)
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPage(Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+}
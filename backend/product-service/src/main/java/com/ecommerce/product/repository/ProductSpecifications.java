@@ -0,0 +1,74 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.ProductStatus;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Composable filters for ProductRepository#findBy(Specification, ...). Each one is null when its
+ * value is absent, which Specification.where / and skip, so any combination becomes one query
+ * whose WHERE clause only holds the requested predicates.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> inCategories(Collection<Long> categoryIds) {
+        if (categoryIds == null) {
+            return null;
+        }
+        return (root, query, cb) -> categoryIds.size() == 1
+                ? cb.equal(root.get("category").get("id"), categoryIds.iterator().next())
+                : root.get("category").get("id").in(categoryIds);
+    }
+
+    public static Specification<Product> hasBrand(String brand) {
+        return brand == null || brand.isBlank() ? null : (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return minPrice == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return maxPrice == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> hasStatus(ProductStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Product> hasSeller(Long sellerId) {
+        return sellerId == null ? null : (root, query, cb) -> cb.equal(root.get("sellerId"), sellerId);
+    }
+
+    public static Specification<Product> isFeatured(Boolean featured) {
+        return featured == null ? null : (root, query, cb) -> cb.equal(root.get("isFeatured"), featured);
+    }
+
+    // Keyset position of PageCursor: rows after (createdAt, id) in newest first order
+    public static Specification<Product> after(LocalDateTime createdAt, Long id) {
+        if (createdAt == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+
+    // Loads the category with the products, so mapping the results does not query it per row
+    public static Specification<Product> fetchCategory() {
+        return (root, query, cb) -> {
+            if (query.getResultType() == Product.class) {
+                root.fetch("category", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.product.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when a category is created, updated or deleted
+@Getter
+@AllArgsConstructor
+class CategoryChangedEvent {
+
+    private final Long categoryId;
+    // Name or slug changed, which changes the category embedded in its products
+    private final boolean renamed;
+}
@@ -8,8 +8,11 @@ import com.ecommerce.product.entity.CategoryStatus;
 import com.ecommerce.product.exception.CategoryAlreadyExistsException;
 import com.ecommerce.product.exception.ResourceNotFoundException;
 import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.CategoryTree.Node;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +25,9 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTree categoryTree;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CategoryResponseDTO createCategory(CategoryRequestDTO requestDTO) {
@@ -50,49 +56,54 @@ public class CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId(), false));
         log.info("Category created successfully with ID: {}", savedCategory.getId());
 
         return mapToResponseDTO(savedCategory);
     }
 
+    // Reads are served from the in-memory category tree, see CategoryTree
+
     public CategoryResponseDTO getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
+        Node category = categoryTree.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         return mapToResponseDTO(category);
     }
 
     public CategoryResponseDTO getCategoryBySlug(String slug) {
-        Category category = categoryRepository.findBySlug(slug)
+        Node category = categoryTree.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug));
         return mapToResponseDTO(category);
     }
 
     public List<CategoryResponseDTO> getAllCategories() {
-        return categoryRepository.findAll().stream()
+        return categoryTree.getAll().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
     public List<CategoryResponseDTO> getRootCategories() {
-        return categoryRepository.findByParentIsNull().stream()
+        return categoryTree.getRoots().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
     public List<CategoryResponseDTO> getActiveRootCategories() {
-        return categoryRepository.findActiveRootCategories().stream()
+        return categoryTree.getRoots().stream()
+                .filter(category -> category.getStatus() == CategoryStatus.ACTIVE)
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
     public List<CategoryResponseDTO> getSubCategories(Long parentId) {
-        return categoryRepository.findByParentId(parentId).stream()
+        return categoryTree.getChildren(parentId).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
     public List<CategoryResponseDTO> getCategoriesByStatus(CategoryStatus status) {
-        return categoryRepository.findByStatus(status).stream()
+        return categoryTree.getAll().stream()
+                .filter(category -> category.getStatus() == status)
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
@@ -135,6 +146,7 @@ public class CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, updateDTO.getName() != null || updateDTO.getSlug() != null));
         log.info("Category updated successfully with ID: {}", id);
 
         return mapToResponseDTO(updatedCategory);
@@ -147,6 +159,7 @@ public class CategoryService {
 
         category.setStatus(status);
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, false));
 
         return mapToResponseDTO(updatedCategory);
     }
@@ -161,17 +174,18 @@ public class CategoryService {
         }
 
         // Check if category has products
-        if (!category.getProducts().isEmpty()) {
+        if (productRepository.existsByCategoryId(id)) {
             throw new IllegalStateException("Cannot delete category with existing products. Please move or delete products first.");
         }
 
         // Check if category has sub-categories
-        if (!category.getSubCategories().isEmpty()) {
+        if (categoryRepository.existsByParentId(id)) {
             throw new IllegalStateException("Cannot delete category with sub-categories. Please delete sub-categories first.");
         }
 
         category.setStatus(CategoryStatus.DELETED);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, false));
 
         log.info("Category soft deleted - ID: {}", id);
     }
@@ -184,6 +198,7 @@ public class CategoryService {
                 .trim();
     }
 
+    // Write responses, mapped before the tree picks up the change
     private CategoryResponseDTO mapToResponseDTO(Category category) {
         CategoryResponseDTO dto = new CategoryResponseDTO();
         dto.setId(category.getId());
@@ -192,7 +207,7 @@ public class CategoryService {
         dto.setSlug(category.getSlug());
         dto.setImageUrl(category.getImageUrl());
         dto.setStatus(category.getStatus());
-        dto.setProductCount(category.getProducts() != null ? category.getProducts().size() : 0);
+        dto.setProductCount(categoryTree.getProductCount(category.getId()));
         dto.setCreatedAt(category.getCreatedAt());
         dto.setUpdatedAt(category.getUpdatedAt());
 
@@ -201,17 +216,42 @@ public class CategoryService {
             dto.setParentName(category.getParent().getName());
         }
 
-        // Map sub-categories (simple mapping without nesting to avoid deep recursion)
-        if (category.getSubCategories() != null && !category.getSubCategories().isEmpty()) {
-            dto.setSubCategories(category.getSubCategories().stream()
-                    .map(this::mapToSimpleDTO)
-                    .collect(Collectors.toList()));
+        setSubCategories(dto, category.getId());
+        return dto;
+    }
+
+    private CategoryResponseDTO mapToResponseDTO(Node category) {
+        CategoryResponseDTO dto = new CategoryResponseDTO();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        dto.setDescription(category.getDescription());
+        dto.setSlug(category.getSlug());
+        dto.setImageUrl(category.getImageUrl());
+        dto.setStatus(category.getStatus());
+        dto.setProductCount(categoryTree.getProductCount(category.getId()));
+        dto.setCreatedAt(category.getCreatedAt());
+        dto.setUpdatedAt(category.getUpdatedAt());
+
+        if (category.getParentId() != null) {
+            dto.setParentId(category.getParentId());
+            categoryTree.findById(category.getParentId()).ifPresent(parent -> dto.setParentName(parent.getName()));
         }
 
+        setSubCategories(dto, category.getId());
         return dto;
     }
 
-    private CategoryResponseDTO mapToSimpleDTO(Category category) {
+    // Map sub-categories (simple mapping without nesting to avoid deep recursion)
+    private void setSubCategories(CategoryResponseDTO dto, Long categoryId) {
+        List<Node> subCategories = categoryTree.getChildren(categoryId);
+        if (!subCategories.isEmpty()) {
+            dto.setSubCategories(subCategories.stream()
+                    .map(this::mapToSimpleDTO)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private CategoryResponseDTO mapToSimpleDTO(Node category) {
         CategoryResponseDTO dto = new CategoryResponseDTO();
         dto.setId(category.getId());
         dto.setName(category.getName());
@@ -0,0 +1,215 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Category;
+import com.ecommerce.product.entity.CategoryStatus;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The whole category tree in memory, so category reads never load Category or Product entities.
+ * Categories are looked up by id or slug, and children or whole subtrees by parent, in constant time.
+ *
+ * The tree is rebuilt from the categories table after every category change committed by this
+ * instance. Product counts (non-deleted products per category) are loaded with it and then moved
+ * by product create, move and delete events. A periodic rebuild picks up changes made by other
+ * instances and corrects the counts; a lookup that misses the snapshot checks the categories table
+ * and, if the category exists there, rebuilds straight away. The lists and sets handed out are
+ * unmodifiable, since every caller shares them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    private volatile Snapshot snapshot;
+
+    public Optional<Node> findById(Long id) {
+        Snapshot current = snapshot();
+        Node node = current.byId.get(id);
+        if (node != null) {
+            return Optional.of(node);
+        }
+        return categoryRepository.findById(id).map(category -> {
+            rebuildAfterMiss(current);
+            return new Node(category);
+        });
+    }
+
+    public Optional<Node> findBySlug(String slug) {
+        Snapshot current = snapshot();
+        Node node = current.bySlug.get(slug);
+        if (node != null) {
+            return Optional.of(node);
+        }
+        return categoryRepository.findBySlug(slug).map(category -> {
+            rebuildAfterMiss(current);
+            return new Node(category);
+        });
+    }
+
+    public Collection<Node> getAll() {
+        return snapshot().all;
+    }
+
+    public List<Node> getRoots() {
+        return snapshot().roots;
+    }
+
+    public List<Node> getChildren(Long parentId) {
+        return snapshotContaining(parentId).children.getOrDefault(parentId, List.of());
+    }
+
+    // The category and all its descendants, empty if the category does not exist
+    public Set<Long> getSubtreeIds(Long categoryId) {
+        return snapshotContaining(categoryId).subtreeIds.getOrDefault(categoryId, Set.of());
+    }
+
+    public int getProductCount(Long categoryId) {
+        return snapshot().productCounts.getOrDefault(categoryId, 0L).intValue();
+    }
+
+    @Scheduled(fixedDelayString = "${product.category-tree.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        Map<Long, Long> productCounts = new ConcurrentHashMap<>();
+        for (Object[] row : productRepository.countProductsByCategory()) {
+            productCounts.put((Long) row[0], (Long) row[1]);
+        }
+        snapshot = new Snapshot(categoryRepository.findAllByOrderByIdAsc(), productCounts);
+        log.debug("Rebuilt category tree with {} categories", snapshot.byId.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Long from = event.getPreviousCategoryId();
+        Long to = event.getCategoryId();
+        if (snapshot == null || (from != null && from.equals(to))) {
+            return;
+        }
+        if (from != null) {
+            snapshot.productCounts.merge(from, -1L, (count, delta) -> Math.max(0, count + delta));
+        }
+        if (to != null) {
+            snapshot.productCounts.merge(to, 1L, Long::sum);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // The snapshot, rebuilt first if it lacks a category the categories table has (e.g. one created
+    // by another instance since the last rebuild)
+    private Snapshot snapshotContaining(Long categoryId) {
+        Snapshot current = snapshot();
+        if (categoryId == null || current.byId.containsKey(categoryId) || !categoryRepository.existsById(categoryId)) {
+            return current;
+        }
+        rebuildAfterMiss(current);
+        return snapshot;
+    }
+
+    // Callers that missed on the same snapshot at the same time share one rebuild
+    private synchronized void rebuildAfterMiss(Snapshot missed) {
+        if (snapshot == missed) {
+            log.debug("Category missing from the category tree, rebuilding it");
+            rebuild();
+        }
+    }
+
+    // Immutable copy of one category
+    @Getter
+    public static final class Node {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final String slug;
+        private final String imageUrl;
+        private final CategoryStatus status;
+        private final Long parentId;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+
+        private Node(Category category) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.description = category.getDescription();
+            this.slug = category.getSlug();
+            this.imageUrl = category.getImageUrl();
+            this.status = category.getStatus();
+            // Id of an uninitialized proxy, so the parent row is not loaded
+            this.parentId = category.getParent() != null ? category.getParent().getId() : null;
+            this.createdAt = category.getCreatedAt();
+            this.updatedAt = category.getUpdatedAt();
+        }
+    }
+
+    private static final class Snapshot {
+        final Map<Long, Node> byId = new LinkedHashMap<>();
+        final Map<String, Node> bySlug = new HashMap<>();
+        final Collection<Node> all = Collections.unmodifiableCollection(byId.values());
+        final List<Node> roots;
+        final Map<Long, List<Node>> children = new HashMap<>();
+        final Map<Long, Set<Long>> subtreeIds = new HashMap<>();
+        final Map<Long, Long> productCounts;
+
+        Snapshot(List<Category> categories, Map<Long, Long> productCounts) {
+            this.productCounts = productCounts;
+            List<Node> roots = new ArrayList<>();
+            for (Category category : categories) {
+                Node node = new Node(category);
+                byId.put(node.getId(), node);
+                if (node.getSlug() != null) {
+                    bySlug.put(node.getSlug(), node);
+                }
+                if (node.getParentId() == null) {
+                    roots.add(node);
+                } else {
+                    children.computeIfAbsent(node.getParentId(), id -> new ArrayList<>()).add(node);
+                }
+            }
+            // Add every category to its own and all its ancestors' subtrees; the visited set guards against parent cycles
+            for (Node node : byId.values()) {
+                Set<Long> visited = new HashSet<>();
+                for (Node ancestor = node; ancestor != null && visited.add(ancestor.getId());
+                     ancestor = ancestor.getParentId() != null ? byId.get(ancestor.getParentId()) : null) {
+                    subtreeIds.computeIfAbsent(ancestor.getId(), id -> new HashSet<>()).add(node.getId());
+                }
+            }
+            this.roots = List.copyOf(roots);
+            children.replaceAll((id, nodes) -> List.copyOf(nodes));
+            subtreeIds.replaceAll((id, ids) -> Collections.unmodifiableSet(ids));
+        }
+    }
+}
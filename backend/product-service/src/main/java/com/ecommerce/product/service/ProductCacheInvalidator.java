@@ -0,0 +1,49 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts cached products once the change that made them stale has committed. Evicting earlier
+ * would let a concurrent read cache the old row again before the commit. The precomputed top
+ * lists are only marked stale here; ProductService rebuilds them in the background.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ProductService productService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache(CacheConfig.PRODUCTS).evict(event.getProductId());
+        cache(CacheConfig.PRODUCTS_BY_SKU).evict(event.getSku());
+        // The featured list, best sellers and new arrivals may all contain the product
+        cache(CacheConfig.PRODUCT_LISTS).clear();
+        productService.markTopListsStale();
+        log.debug("Evicted cached product {}", event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!event.isRenamed()) {
+            return;
+        }
+        cache(CacheConfig.PRODUCTS).clear();
+        cache(CacheConfig.PRODUCTS_BY_SKU).clear();
+        cache(CacheConfig.PRODUCT_LISTS).clear();
+        productService.markTopListsStale();
+        log.debug("Evicted all cached products after category {} changed", event.getCategoryId());
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.product.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when a product is created, updated or deleted
+@Getter
+@AllArgsConstructor
+class ProductChangedEvent {
+
+    private final Long productId;
+    private final String sku;
+    // Category the product was / is now counted in, null if none (new or deleted product)
+    private final Long previousCategoryId;
+    private final Long categoryId;
+}
@@ -0,0 +1,414 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.FacetCountDTO;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.range.DoubleRange;
+import org.apache.lucene.facet.range.DoubleRangeFacetCounts;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lucene index of the product catalog on local disk, for ranked keyword search with category,
+ * brand and price facets. Deleted products are not indexed.
+ *
+ * Each instance keeps its own index. It is updated when this instance changes a product, and a
+ * periodic sync re-indexes every product updated since the last sync, which also picks up changes
+ * made by other instances. The first sync on an empty index builds it from the products table.
+ *
+ * Categories are indexed by id only and named from the CategoryTree when facets are returned,
+ * so renaming a category needs no re-indexing.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    public static final String CATEGORY_FACET = "category";
+    public static final String BRAND_FACET = "brand";
+    public static final String PRICE_FACET = "price";
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String BRAND = "brand";
+    private static final String DESCRIPTION = "description";
+    private static final String SKU = "sku";
+    private static final String BRAND_EXACT = "brandExact";
+    private static final String CATEGORY_ID = "categoryId";
+    private static final String PRICE = "price";
+    private static final String SYNCED_AT = "syncedAt";
+    private static final String FORMAT = "format";
+    // Bump when the indexed fields change, so an index written by an older build is rebuilt
+    private static final String INDEX_FORMAT = "2";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int MAX_FACET_VALUES = 20;
+    // Re-read a little before the last sync, for rows committed late or stamped by a skewed clock
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private static final DoubleRange[] PRICE_RANGES = {
+            new DoubleRange("0-25", 0, true, 25, false),
+            new DoubleRange("25-50", 25, true, 50, false),
+            new DoubleRange("50-100", 50, true, 100, false),
+            new DoubleRange("100-250", 100, true, 250, false),
+            new DoubleRange("250-500", 250, true, 500, false),
+            new DoubleRange("500-1000", 500, true, 1000, false),
+            new DoubleRange("1000+", 1000, true, Double.POSITIVE_INFINITY, true)
+    };
+
+    private final ProductRepository productRepository;
+    private final CategoryTree categoryTree;
+    private final Path indexDir;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private LocalDateTime syncedAt;
+    private volatile boolean ready;
+    private volatile DefaultSortedSetDocValuesReaderState facetState;
+
+    public ProductSearchIndex(ProductRepository productRepository, CategoryTree categoryTree,
+                              @Value("${product.search.index-dir:./data/product-search}") String indexDir) {
+        this.productRepository = productRepository;
+        this.categoryTree = categoryTree;
+        this.indexDir = Path.of(indexDir);
+    }
+
+    @PostConstruct
+    void open() {
+        try {
+            Files.createDirectories(indexDir);
+            directory = FSDirectory.open(indexDir);
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            searcherManager = new SearcherManager(writer, null);
+
+            Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+            String format = null;
+            if (commitData != null) {
+                for (Map.Entry<String, String> entry : commitData) {
+                    if (SYNCED_AT.equals(entry.getKey())) {
+                        syncedAt = LocalDateTime.parse(entry.getValue());
+                    } else if (FORMAT.equals(entry.getKey())) {
+                        format = entry.getValue();
+                    }
+                }
+            }
+            if (syncedAt != null && !INDEX_FORMAT.equals(format)) {
+                log.info("Product search index at {} has an older format, rebuilding it", indexDir.toAbsolutePath());
+                syncedAt = null;
+            }
+            log.info("Opened product search index at {}, last synced at {}", indexDir.toAbsolutePath(), syncedAt);
+        } catch (IOException e) {
+            writer = null;
+            log.error("Could not open product search index at {}, search falls back to the database",
+                    indexDir.toAbsolutePath(), e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        ready = false;
+        if (writer != null) {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Scheduled(fixedDelayString = "${product.search.sync-interval-ms:30000}")
+    public synchronized void sync() {
+        if (writer == null) {
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            int indexed;
+            if (syncedAt == null) {
+                indexed = rebuild();
+            } else {
+                List<Product> products = productRepository.findUpdatedSince(syncedAt.minus(SYNC_OVERLAP));
+                for (Product product : products) {
+                    index(product);
+                }
+                indexed = products.size();
+            }
+
+            syncedAt = startedAt;
+            writer.setLiveCommitData(Map.of(SYNCED_AT, startedAt.toString(), FORMAT, INDEX_FORMAT).entrySet());
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready = true;
+            if (indexed > 0) {
+                log.debug("Synced {} products into the search index", indexed);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to sync the product search index, will retry", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            Product product = productRepository.findByIdWithCategory(event.getProductId()).orElse(null);
+            if (product != null) {
+                index(product);
+            } else {
+                writer.deleteDocuments(new Term(ID, event.getProductId().toString()));
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to index product {}, the next sync will retry", event.getProductId(), e);
+        }
+    }
+
+    /**
+     * Ranked search. All words of the keyword must match the name, brand or description (the last
+     * one also as a prefix, since the storefront searches as the user types), and an exact SKU
+     * matches on its own. Facets are counted over all hits, not just the requested page.
+     */
+    public ProductSearchResult search(String keyword, Long categoryId, String brand,
+                                      BigDecimal minPrice, BigDecimal maxPrice, int page, int size) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Query query = buildQuery(keyword, categoryId, brand, minPrice, maxPrice);
+            int from = (int) Math.min((long) page * size, MAX_RESULT_WINDOW);
+            int window = Math.max(Math.min(from + size, MAX_RESULT_WINDOW), 1);
+
+            FacetsCollector facetsCollector = new FacetsCollector();
+            TopDocs topDocs = FacetsCollector.search(searcher, query, window, facetsCollector);
+
+            List<Long> productIds = new ArrayList<>();
+            StoredFields storedFields = searcher.storedFields();
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            for (int i = from; i < hits.length; i++) {
+                productIds.add(Long.valueOf(storedFields.document(hits[i].doc).get(ID)));
+            }
+
+            Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+            SortedSetDocValuesFacetCounts termCounts = termFacetCounts(searcher, facetsCollector);
+            facets.put(CATEGORY_FACET, termCounts != null
+                    ? toCategoryFacetCounts(termCounts.getTopChildren(MAX_FACET_VALUES, CATEGORY_FACET)) : List.of());
+            facets.put(BRAND_FACET, termCounts != null
+                    ? toFacetCounts(termCounts.getTopChildren(MAX_FACET_VALUES, BRAND_FACET)) : List.of());
+            facets.put(PRICE_FACET, toFacetCounts(
+                    new DoubleRangeFacetCounts(PRICE, facetsCollector, PRICE_RANGES).getAllChildren(PRICE)));
+
+            return new ProductSearchResult(productIds, topDocs.totalHits.value, facets);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private int rebuild() throws IOException {
+        writer.deleteAll();
+        int indexed = 0;
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findBatchAfterId(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Product product : batch) {
+                index(product);
+                lastId = product.getId();
+            }
+            indexed += batch.size();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        log.info("Built product search index with {} products", indexed);
+        return indexed;
+    }
+
+    private void index(Product product) throws IOException {
+        Term id = new Term(ID, product.getId().toString());
+        if (product.getStatus() == ProductStatus.DELETED) {
+            writer.deleteDocuments(id);
+            return;
+        }
+
+        Document doc = new Document();
+        doc.add(new StringField(ID, product.getId().toString(), Field.Store.YES));
+        doc.add(new TextField(NAME, product.getName(), Field.Store.NO));
+        doc.add(new StringField(SKU, product.getSku().toLowerCase(Locale.ROOT), Field.Store.NO));
+        if (product.getDescription() != null) {
+            doc.add(new TextField(DESCRIPTION, product.getDescription(), Field.Store.NO));
+        }
+        if (product.getBrand() != null && !product.getBrand().isBlank()) {
+            doc.add(new TextField(BRAND, product.getBrand(), Field.Store.NO));
+            doc.add(new StringField(BRAND_EXACT, product.getBrand(), Field.Store.NO));
+            doc.add(new SortedSetDocValuesFacetField(BRAND_FACET, product.getBrand()));
+        }
+        if (product.getCategory() != null) {
+            doc.add(new StringField(CATEGORY_ID, product.getCategory().getId().toString(), Field.Store.NO));
+            doc.add(new SortedSetDocValuesFacetField(CATEGORY_FACET, product.getCategory().getId().toString()));
+        }
+        double price = product.getPrice().doubleValue();
+        doc.add(new DoublePoint(PRICE, price));
+        doc.add(new DoubleDocValuesField(PRICE, price));
+
+        writer.updateDocument(id, facetsConfig.build(doc));
+    }
+
+    private Query buildQuery(String keyword, Long categoryId, String brand,
+                             BigDecimal minPrice, BigDecimal maxPrice) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+
+        List<String> words = analyze(keyword);
+        if (words.isEmpty()) {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        } else {
+            BooleanQuery.Builder allWords = new BooleanQuery.Builder();
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+                anyField.add(new BoostQuery(new TermQuery(new Term(NAME, word)), 3f), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new TermQuery(new Term(BRAND, word)), 2f), BooleanClause.Occur.SHOULD);
+                anyField.add(new TermQuery(new Term(DESCRIPTION, word)), BooleanClause.Occur.SHOULD);
+                if (i == words.size() - 1) {
+                    anyField.add(new PrefixQuery(new Term(NAME, word)), BooleanClause.Occur.SHOULD);
+                }
+                allWords.add(anyField.build(), BooleanClause.Occur.MUST);
+            }
+
+            BooleanQuery.Builder match = new BooleanQuery.Builder();
+            match.add(allWords.build(), BooleanClause.Occur.SHOULD);
+            match.add(new BoostQuery(new TermQuery(new Term(SKU, keyword.trim().toLowerCase(Locale.ROOT))), 10f),
+                    BooleanClause.Occur.SHOULD);
+            query.add(match.build(), BooleanClause.Occur.MUST);
+        }
+
+        if (categoryId != null) {
+            query.add(new TermQuery(new Term(CATEGORY_ID, categoryId.toString())), BooleanClause.Occur.FILTER);
+        }
+        if (brand != null && !brand.isBlank()) {
+            query.add(new TermQuery(new Term(BRAND_EXACT, brand)), BooleanClause.Occur.FILTER);
+        }
+        if (minPrice != null || maxPrice != null) {
+            query.add(DoublePoint.newRangeQuery(PRICE,
+                    minPrice != null ? minPrice.doubleValue() : Double.NEGATIVE_INFINITY,
+                    maxPrice != null ? maxPrice.doubleValue() : Double.POSITIVE_INFINITY), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                words.add(term.toString());
+            }
+            stream.end();
+        }
+        return words;
+    }
+
+    // Null until at least one indexed product has a brand or category
+    private SortedSetDocValuesFacetCounts termFacetCounts(IndexSearcher searcher,
+                                                          FacetsCollector facetsCollector) throws IOException {
+        DefaultSortedSetDocValuesReaderState state = facetState;
+        if (state == null || state.getReader() != searcher.getIndexReader()) {
+            try {
+                // Ordinal maps are built per reader, so reuse them until the index changes
+                state = new DefaultSortedSetDocValuesReaderState(searcher.getIndexReader(), facetsConfig);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            facetState = state;
+        }
+        return new SortedSetDocValuesFacetCounts(state, facetsCollector);
+    }
+
+    private List<FacetCountDTO> toFacetCounts(FacetResult result) {
+        if (result == null) {
+            return List.of();
+        }
+        List<FacetCountDTO> counts = new ArrayList<>();
+        for (LabelAndValue labelAndValue : result.labelValues) {
+            counts.add(new FacetCountDTO(labelAndValue.label, labelAndValue.label, labelAndValue.value.longValue()));
+        }
+        return counts;
+    }
+
+    // Facet values are category ids, the value the categoryId filter takes; a category deleted
+    // since its products were last indexed keeps its id as the label
+    private List<FacetCountDTO> toCategoryFacetCounts(FacetResult result) {
+        if (result == null) {
+            return List.of();
+        }
+        List<FacetCountDTO> counts = new ArrayList<>();
+        for (LabelAndValue labelAndValue : result.labelValues) {
+            String label = categoryTree.findById(Long.valueOf(labelAndValue.label))
+                    .map(CategoryTree.Node::getName)
+                    .orElse(labelAndValue.label);
+            counts.add(new FacetCountDTO(labelAndValue.label, label, labelAndValue.value.longValue()));
+        }
+        return counts;
+    }
+}
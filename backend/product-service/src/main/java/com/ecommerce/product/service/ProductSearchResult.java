@@ -0,0 +1,18 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.FacetCountDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// One page of ProductSearchIndex hits, best match first, with facet counts over all hits
+@Getter
+@AllArgsConstructor
+public class ProductSearchResult {
+
+    private final List<Long> productIds;
+    private final long totalHits;
+    private final Map<String, List<FacetCountDTO>> facets;
+}
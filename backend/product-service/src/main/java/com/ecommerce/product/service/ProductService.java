@@ -1,7 +1,12 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.config.CacheConfig;
+import com.ecommerce.product.dto.CursorPageResponseDTO;
+import com.ecommerce.product.dto.ProductQueryDTO;
 import com.ecommerce.product.dto.ProductRequestDTO;
 import com.ecommerce.product.dto.ProductResponseDTO;
+import com.ecommerce.product.dto.ProductSearchResponseDTO;
+import com.ecommerce.product.dto.ProductSuggestionDTO;
 import com.ecommerce.product.dto.ProductUpdateDTO;
 import com.ecommerce.product.dto.CategoryResponseDTO;
 import com.ecommerce.product.entity.Category;
@@ -10,16 +15,30 @@ import com.ecommerce.product.entity.ProductStatus;
 import com.ecommerce.product.exception.InsufficientStockException;
 import com.ecommerce.product.exception.ProductAlreadyExistsException;
 import com.ecommerce.product.exception.ResourceNotFoundException;
+import com.ecommerce.product.exception.TooManyIdsException;
 import com.ecommerce.product.repository.CategoryRepository;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,8 +46,22 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProductService {
 
+    private static final int TOP_LIST_SIZE = 10;
+    // Upper bound of one bulk lookup, so a single request cannot load an unbounded IN list
+    private static final int MAX_BATCH_IDS = 500;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggester productSuggester;
+    private final CategoryTree categoryTree;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Homepage lists, precomputed so requests never query for them
+    private volatile List<ProductResponseDTO> bestSellers;
+    private volatile List<ProductResponseDTO> newArrivals;
+    // Set after a product change; the lists are rebuilt by the next stale check, never inline
+    private volatile boolean topListsStale;
 
     @Transactional
     public ProductResponseDTO createProduct(ProductRequestDTO requestDTO) {
@@ -64,22 +97,32 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), savedProduct.getSku(),
+                null, countedCategoryId(savedProduct)));
         log.info("Product created successfully with ID: {}", savedProduct.getId());
 
         return mapToResponseDTO(savedProduct);
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponseDTO getProductById(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-
-        // Increment view count
-        product.setViewCount(product.getViewCount() + 1);
-        productRepository.save(product);
-
         return mapToResponseDTO(product);
     }
 
+    // Bulk lookup for other services; ids that do not exist are simply absent from the result
+    @Transactional(readOnly = true)
+    public Map<Long, ProductResponseDTO> getProductsByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new TooManyIdsException("At most " + MAX_BATCH_IDS + " product IDs can be requested at once, got " + ids.size());
+        }
+        return productRepository.findAllByIdWithCategory(ids).stream()
+                .collect(Collectors.toMap(Product::getId, this::mapToResponseDTO,
+                        (first, second) -> first, LinkedHashMap::new));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_SKU, key = "#sku")
     public ProductResponseDTO getProductBySku(String sku) {
         Product product = productRepository.findBySku(sku)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with SKU: " + sku));
@@ -92,6 +135,55 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    public CursorPageResponseDTO<ProductResponseDTO> getProductsPage(String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Product> products;
+        if (cursor == null || cursor.isBlank()) {
+            products = productRepository.findPage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            products = productRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return PageCursor.page(products, pageSize, Product::getCreatedAt, Product::getId, this::mapToResponseDTO);
+    }
+
+    /**
+     * Any combination of filters as one query, newest first with the same keyset cursor as
+     * getProductsPage. A category filter covers its descendants (taken from the category tree)
+     * unless includeSubcategories is false.
+     */
+    public CursorPageResponseDTO<ProductResponseDTO> queryProducts(ProductQueryDTO filter, String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+
+        Set<Long> categoryIds = null;
+        if (filter.getCategoryId() != null) {
+            categoryIds = Boolean.FALSE.equals(filter.getIncludeSubcategories())
+                    ? Set.of(filter.getCategoryId())
+                    : categoryTree.getSubtreeIds(filter.getCategoryId());
+            if (categoryIds.isEmpty()) {
+                return new CursorPageResponseDTO<>(List.of(), null, false);
+            }
+        }
+
+        Specification<Product> spec = Specification.where(ProductSpecifications.inCategories(categoryIds))
+                .and(ProductSpecifications.hasBrand(filter.getBrand()))
+                .and(ProductSpecifications.priceAtLeast(filter.getMinPrice()))
+                .and(ProductSpecifications.priceAtMost(filter.getMaxPrice()))
+                .and(ProductSpecifications.hasStatus(filter.getStatus()))
+                .and(ProductSpecifications.hasSeller(filter.getSellerId()))
+                .and(ProductSpecifications.isFeatured(filter.getFeatured()))
+                .and(after != null ? ProductSpecifications.after(after.getCreatedAt(), after.getId()) : null)
+                .and(ProductSpecifications.fetchCategory());
+        Sort newestFirst = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+        List<Product> products = productRepository.findBy(spec,
+                query -> query.sortBy(newestFirst).limit(pageSize + 1).all());
+        return PageCursor.page(products, pageSize, Product::getCreatedAt, Product::getId, this::mapToResponseDTO);
+    }
+
     public List<ProductResponseDTO> getProductsByStatus(ProductStatus status) {
         return productRepository.findByStatus(status).stream()
                 .map(this::mapToResponseDTO)
@@ -116,16 +208,61 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_LISTS, key = "'featured'")
     public List<ProductResponseDTO> getFeaturedProducts() {
         return productRepository.findByIsFeatured(true).stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    // Typeahead, served from memory; limit defaults to and is capped at SuggestionTrie.MAX_SUGGESTIONS
+    public List<ProductSuggestionDTO> suggestProducts(String prefix, Integer limit) {
+        return productSuggester.suggest(prefix, limit != null ? limit : SuggestionTrie.MAX_SUGGESTIONS);
+    }
+
+    // Best matches first, at most one page of PageCursor.MAX_PAGE_SIZE
     public List<ProductResponseDTO> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword).stream()
+        return searchProducts(keyword, null, null, null, null, 0, PageCursor.MAX_PAGE_SIZE).getItems();
+    }
+
+    public ProductSearchResponseDTO searchProducts(String keyword, Long categoryId, String brand,
+                                                   BigDecimal minPrice, BigDecimal maxPrice,
+                                                   Integer page, Integer size) {
+        int pageNumber = page != null ? Math.max(page, 0) : 0;
+        int pageSize = PageCursor.pageSize(size);
+
+        if (productSearchIndex.isReady()) {
+            try {
+                ProductSearchResult result = productSearchIndex.search(keyword, categoryId, brand,
+                        minPrice, maxPrice, pageNumber, pageSize);
+                Map<Long, Product> products = productRepository.findAllByIdWithCategory(result.getProductIds()).stream()
+                        .collect(Collectors.toMap(Product::getId, product -> product));
+                // Keep the ranking; a product deleted since the last index update is skipped
+                List<ProductResponseDTO> items = result.getProductIds().stream()
+                        .map(products::get)
+                        .filter(Objects::nonNull)
+                        .map(this::mapToResponseDTO)
+                        .collect(Collectors.toList());
+                return new ProductSearchResponseDTO(items, result.getTotalHits(), pageNumber, pageSize, result.getFacets());
+            } catch (IOException e) {
+                log.warn("Product search index failed, falling back to the database", e);
+            }
+        }
+
+        // Index not built yet or unavailable: unranked LIKE search, without facets
+        List<Product> matches = productRepository.searchProducts(keyword == null ? "" : keyword).stream()
+                .filter(product -> categoryId == null
+                        || (product.getCategory() != null && categoryId.equals(product.getCategory().getId())))
+                .filter(product -> brand == null || brand.equals(product.getBrand()))
+                .filter(product -> minPrice == null || product.getPrice().compareTo(minPrice) >= 0)
+                .filter(product -> maxPrice == null || product.getPrice().compareTo(maxPrice) <= 0)
+                .collect(Collectors.toList());
+        List<ProductResponseDTO> items = matches.stream()
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize)
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
+        return new ProductSearchResponseDTO(items, (long) matches.size(), pageNumber, pageSize, Map.of());
     }
 
     public List<ProductResponseDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
@@ -135,23 +272,54 @@ public class ProductService {
     }
 
     public List<ProductResponseDTO> getBestSellers() {
-        return productRepository.findBestSellers().stream()
-                .limit(10)
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        List<ProductResponseDTO> products = bestSellers;
+        if (products == null) {
+            refreshTopLists();
+            products = bestSellers;
+        }
+        return products;
     }
 
     public List<ProductResponseDTO> getNewArrivals() {
-        return productRepository.findNewArrivals().stream()
-                .limit(10)
+        List<ProductResponseDTO> products = newArrivals;
+        if (products == null) {
+            refreshTopLists();
+            products = newArrivals;
+        }
+        return products;
+    }
+
+    // Called by ProductCacheInvalidator once a product change has committed
+    public void markTopListsStale() {
+        topListsStale = true;
+    }
+
+    // However many changes were marked since the last check, the lists are rebuilt once
+    @Scheduled(fixedDelayString = "${product.top-lists.stale-check-interval-ms:1000}")
+    public void refreshStaleTopLists() {
+        if (topListsStale) {
+            refreshTopLists();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.top-lists.refresh-interval-ms:60000}")
+    public void refreshTopLists() {
+        // Cleared first, so a change committed while the lists are queried marks them again
+        topListsStale = false;
+        Pageable topN = PageRequest.of(0, TOP_LIST_SIZE);
+        bestSellers = productRepository.findBestSellers(topN).stream()
                 .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+                .toList();
+        newArrivals = productRepository.findNewArrivals(topN).stream()
+                .map(this::mapToResponseDTO)
+                .toList();
     }
 
     @Transactional
     public ProductResponseDTO updateProduct(Long id, ProductUpdateDTO updateDTO) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Long previousCategoryId = countedCategoryId(product);
 
         if (updateDTO.getName() != null) {
             product.setName(updateDTO.getName());
@@ -196,6 +364,8 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, product.getSku(),
+                previousCategoryId, countedCategoryId(product)));
         log.info("Product updated successfully with ID: {}", id);
 
         return mapToResponseDTO(updatedProduct);
@@ -205,9 +375,12 @@ public class ProductService {
     public ProductResponseDTO updateProductStatus(Long id, ProductStatus status) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Long previousCategoryId = countedCategoryId(product);
 
         product.setStatus(status);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, product.getSku(),
+                previousCategoryId, countedCategoryId(product)));
 
         return mapToResponseDTO(updatedProduct);
     }
@@ -216,6 +389,7 @@ public class ProductService {
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Long previousCategoryId = countedCategoryId(product);
 
         if (product.getStatus() == ProductStatus.DELETED) {
             throw new IllegalStateException("Product with id " + id + " is already deleted");
@@ -224,6 +398,8 @@ public class ProductService {
         product.setStatus(ProductStatus.DELETED);
         product.setDeletedAt(LocalDateTime.now());
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, product.getSku(),
+                previousCategoryId, countedCategoryId(product)));
 
         log.info("Product soft deleted - ID: {}", id);
     }
@@ -299,6 +475,12 @@ public class ProductService {
     }
     */
 
+    // Category whose product count includes the product (see CategoryTree); deleted products are not counted
+    private Long countedCategoryId(Product product) {
+        return product.getStatus() != ProductStatus.DELETED && product.getCategory() != null
+                ? product.getCategory().getId() : null;
+    }
+
     private ProductResponseDTO mapToResponseDTO(Product product) {
         ProductResponseDTO dto = new ProductResponseDTO();
         dto.setId(product.getId());
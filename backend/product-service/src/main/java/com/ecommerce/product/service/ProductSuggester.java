@@ -0,0 +1,173 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductSuggestionDTO;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.ProductStatus;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.SuggestionTrie.Suggestion;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead suggestions for product names, brands and category names, best sellers first,
+ * answered from an in-memory trie without touching the database. Brands and categories rank by
+ * the summed sales of their products; deleted products are left out.
+ *
+ * Product and category changes of this instance are applied as they commit. A periodic rebuild
+ * from the products table picks up everything else, e.g. changes made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggester {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+
+    private volatile Suggestions suggestions = new Suggestions();
+    // Products changed while a rebuild was loading, applied again once it is swapped in; guarded by this
+    private Set<Long> changedDuringRebuild;
+
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        return suggestions.trie.lookup(prefix, Math.max(1, Math.min(limit, SuggestionTrie.MAX_SUGGESTIONS))).stream()
+                .map(s -> new ProductSuggestionDTO(s.getText(), s.getType(), s.getProductId(), s.getSoldCount()))
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${product.suggest.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            // Loaded without holding the lock, so changes committed meanwhile are not blocked
+            Suggestions rebuilt = new Suggestions();
+            long lastId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepository.findBatchAfterId(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Product product : batch) {
+                    rebuilt.apply(product.getId(), IndexedProduct.of(product));
+                    lastId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            synchronized (this) {
+                for (Long productId : changedDuringRebuild) {
+                    rebuilt.apply(productId, productRepository.findByIdWithCategory(productId)
+                            .map(IndexedProduct::of).orElse(null));
+                }
+                suggestions = rebuilt;
+            }
+            log.debug("Rebuilt product suggestions for {} products", rebuilt.products.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild product suggestions, will retry", e);
+        } finally {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        suggestions.apply(productId, productRepository.findByIdWithCategory(productId)
+                .map(IndexedProduct::of).orElse(null));
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(productId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (!event.isRenamed()) {
+            return;
+        }
+        for (Product product : productRepository.findByCategoryIdWithCategory(event.getCategoryId())) {
+            suggestions.apply(product.getId(), IndexedProduct.of(product));
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(product.getId());
+            }
+        }
+    }
+
+    // What a product contributes to the suggestions
+    @AllArgsConstructor
+    private static final class IndexedProduct {
+        final String name;
+        final String brand;
+        final String category;
+        final long soldCount;
+
+        // Null for deleted products, which are not suggested
+        static IndexedProduct of(Product product) {
+            if (product.getStatus() == ProductStatus.DELETED) {
+                return null;
+            }
+            String brand = product.getBrand() != null && !product.getBrand().isBlank() ? product.getBrand() : null;
+            return new IndexedProduct(product.getName(), brand,
+                    product.getCategory() != null ? product.getCategory().getName() : null,
+                    product.getSoldCount() != null ? product.getSoldCount() : 0);
+        }
+    }
+
+    // Products, brands and categories making up one trie; updates are serialized by the owner
+    private static final class Suggestions {
+
+        final SuggestionTrie trie = new SuggestionTrie();
+        final Map<Long, IndexedProduct> products = new HashMap<>();
+        // Number of products and summed sales per brand / category name
+        final Map<String, long[]> brands = new HashMap<>();
+        final Map<String, long[]> categories = new HashMap<>();
+
+        void apply(Long productId, IndexedProduct product) {
+            IndexedProduct previous = product != null ? products.put(productId, product) : products.remove(productId);
+            if (previous != null) {
+                if (product == null || !previous.name.equals(product.name)) {
+                    trie.remove(productSuggestion(productId, previous));
+                }
+                aggregate(brands, "BRAND", previous.brand, -1, -previous.soldCount);
+                aggregate(categories, "CATEGORY", previous.category, -1, -previous.soldCount);
+            }
+            if (product != null) {
+                trie.put(productSuggestion(productId, product));
+                aggregate(brands, "BRAND", product.brand, 1, product.soldCount);
+                aggregate(categories, "CATEGORY", product.category, 1, product.soldCount);
+            }
+        }
+
+        private void aggregate(Map<String, long[]> totals, String type, String name, int products, long soldCount) {
+            if (name == null) {
+                return;
+            }
+            long[] total = totals.computeIfAbsent(name, n -> new long[2]);
+            total[0] += products;
+            total[1] += soldCount;
+            Suggestion suggestion = new Suggestion(type.toLowerCase() + ":" + name, type, name, null, total[1]);
+            if (total[0] <= 0) {
+                totals.remove(name);
+                trie.remove(suggestion);
+            } else {
+                trie.put(suggestion);
+            }
+        }
+
+        private static Suggestion productSuggestion(Long productId, IndexedProduct product) {
+            return new Suggestion("product:" + productId, "PRODUCT", product.name, productId, product.soldCount);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.product.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts product views in memory and adds them to products.view_count in one batched UPDATE
+ * every flush-interval-ms, instead of a read-modify-write per page view.
+ *
+ * Views counted since the last flush are lost if the process dies.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // One adder per viewed product; entries are reset on flush, not removed, so no increment can land in a discarded adder
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    public void recordView(Long productId) {
+        pendingViews.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${product.views.flush-interval-ms:5000}")
+    public void flush() {
+        List<long[]> deltas = new ArrayList<>();
+        pendingViews.forEach((productId, adder) -> {
+            long views = adder.sumThenReset();
+            if (views > 0) {
+                deltas.add(new long[]{productId, views});
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Same row order on every instance, so concurrent flushes cannot deadlock
+        deltas.sort(Comparator.comparingLong(delta -> delta[0]));
+        try {
+            jdbcTemplate.batchUpdate("UPDATE products SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?",
+                    deltas, deltas.size(), (ps, delta) -> {
+                        ps.setLong(1, delta[1]);
+                        ps.setLong(2, delta[0]);
+                    });
+            log.debug("Flushed view counts for {} products", deltas.size());
+        } catch (RuntimeException e) {
+            // Put the views back so the next flush retries them
+            deltas.forEach(delta -> pendingViews.computeIfAbsent(delta[0], id -> new LongAdder()).add(delta[1]));
+            log.error("Failed to flush view counts for {} products, will retry", deltas.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
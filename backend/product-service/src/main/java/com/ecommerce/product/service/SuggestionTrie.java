@@ -0,0 +1,210 @@
+package com.ecommerce.product.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix trie of suggestions where every node caches the best suggestions below it, so a lookup
+ * only walks the prefix. Each word start of a suggestion's text is a key, so "iph" finds
+ * "Apple iPhone 15".
+ *
+ * Lookups take no lock: child arrays are copied on write and cached lists are immutable.
+ * Updates must be serialized by the caller.
+ */
+final class SuggestionTrie {
+
+    static final int MAX_SUGGESTIONS = 10;
+    // Keys are cut here to bound the trie size; longer prefixes are matched on their start
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator
+            .comparingLong(Suggestion::getSoldCount).reversed()
+            .thenComparing(Suggestion::getText);
+
+    private final Node root = new Node('\0');
+
+    List<Suggestion> lookup(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && i < MAX_KEY_LENGTH; i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return List.of();
+            }
+        }
+        List<Suggestion> top = node.top;
+        return top.size() <= limit ? top : top.subList(0, limit);
+    }
+
+    // True once every suggestion has been removed and its nodes pruned
+    boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    // Adds the suggestion, or replaces the one with the same id (its text must not have changed)
+    void put(Suggestion suggestion) {
+        for (String key : keys(suggestion.getText())) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                path.add(node);
+            }
+            if (node.suggestions == null) {
+                node.suggestions = new HashMap<>();
+            }
+            node.suggestions.put(suggestion.getId(), suggestion);
+            refresh(path);
+        }
+    }
+
+    void remove(Suggestion suggestion) {
+        for (String key : keys(suggestion.getText())) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null || node.suggestions == null || node.suggestions.remove(suggestion.getId()) == null) {
+                continue;
+            }
+            // Drop nodes that no longer lead anywhere, then refresh what is left of the path
+            for (int i = path.size() - 1; i > 0 && path.get(i).isEmpty(); i--) {
+                path.get(i - 1).removeChild(path.get(i).label);
+                path.remove(i);
+            }
+            refresh(path);
+        }
+    }
+
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Map<String, Suggestion> candidates = new LinkedHashMap<>();
+            if (node.suggestions != null) {
+                node.suggestions.values().forEach(s -> candidates.put(s.getId(), s));
+            }
+            for (Node child : node.children) {
+                child.top.forEach(s -> candidates.putIfAbsent(s.getId(), s));
+            }
+            node.top = candidates.values().stream()
+                    .sorted(BEST_FIRST)
+                    .limit(MAX_SUGGESTIONS)
+                    .toList();
+        }
+    }
+
+    private static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length()) {
+            String key = normalized.substring(start, Math.min(normalized.length(), start + MAX_KEY_LENGTH));
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class Suggestion {
+        private final String id; // Unique per suggested thing, e.g. "product:12" or "brand:Dell"
+        private final String type;
+        private final String text;
+        private final Long productId;
+        private final long soldCount;
+    }
+
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        final char label;
+        volatile Node[] children = NO_CHILDREN; // Sorted by label
+        volatile List<Suggestion> top = List.of();
+        Map<String, Suggestion> suggestions; // Suggestions whose key ends here, only touched by updates
+
+        Node(char label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            Node[] current = children;
+            int index = indexOf(current, c);
+            return index >= 0 ? current[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            Node[] current = children;
+            int index = indexOf(current, c);
+            if (index >= 0) {
+                return current[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node(c);
+            Node[] updated = new Node[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertAt);
+            updated[insertAt] = child;
+            System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+            children = updated;
+            return child;
+        }
+
+        void removeChild(char c) {
+            Node[] current = children;
+            int index = indexOf(current, c);
+            if (index >= 0) {
+                Node[] updated = new Node[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                children = updated;
+            }
+        }
+
+        boolean isEmpty() {
+            return children.length == 0 && (suggestions == null || suggestions.isEmpty());
+        }
+
+        private static int indexOf(Node[] nodes, char c) {
+            int low = 0;
+            int high = nodes.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = nodes[mid].label;
+                if (label < c) {
+                    low = mid + 1;
+                } else if (label > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
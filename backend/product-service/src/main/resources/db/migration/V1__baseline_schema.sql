@@ -0,0 +1,45 @@
+-- Baseline of the tables owned by product-service, as Hibernate created them with ddl-auto: update.
+-- IF NOT EXISTS keeps this a no-op on databases that already have them (see spring.flyway in
+-- application.yml); parent tables come first for the foreign keys.
+
+create table if not exists categories (
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    parent_id bigint,
+    updated_at datetime(6),
+    description varchar(1000),
+    image_url varchar(255),
+    name varchar(255) not null,
+    slug varchar(255),
+    status enum ('ACTIVE','DELETED','INACTIVE') not null,
+    primary key (id),
+    constraint UKoul14ho7bctbefv8jywp5v3i2 unique (slug),
+    constraint UKt8o6pivur7nn124jehx7cygw5 unique (name),
+    constraint FKsaok720gsu4u2wrgbk10b5n8d foreign key (parent_id) references categories (id)
+) engine=InnoDB;
+
+create table if not exists products (
+    discount_price decimal(10,2),
+    is_featured bit,
+    price decimal(10,2) not null,
+    sold_count integer,
+    stock_quantity integer not null,
+    view_count integer,
+    weight float(53),
+    category_id bigint,
+    created_at datetime(6),
+    deleted_at datetime(6),
+    id bigint not null auto_increment,
+    seller_id bigint,
+    updated_at datetime(6),
+    image_url varchar(1000),
+    description varchar(2000),
+    brand varchar(255),
+    dimensions varchar(255),
+    name varchar(255) not null,
+    sku varchar(255) not null,
+    status enum ('ACTIVE','DELETED','DISCONTINUED','INACTIVE','OUT_OF_STOCK') not null,
+    primary key (id),
+    constraint UKfhmd06dsmj6k0n90swsh8ie9g unique (sku),
+    constraint FKog2rp4qthbtt2lfyhfo32lsw9 foreign key (category_id) references categories (id)
+) engine=InnoDB;
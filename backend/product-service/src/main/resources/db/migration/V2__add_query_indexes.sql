@@ -0,0 +1,27 @@
+-- Indexes for the product-service repository queries that filtered or sorted on unindexed columns.
+-- V1 only creates missing tables, so every index an existing table needs is created here.
+-- Indexes walked for newest first listings are descending, so the scan runs forward in listing order.
+
+-- findPage, findPageAfter
+create index idx_products_created_at_id on products (created_at desc, id desc);
+
+-- findBestSellers, findByStatus
+create index idx_products_status_sold_count on products (status, sold_count desc);
+
+-- findNewArrivals
+create index idx_products_status_created_at on products (status, created_at desc);
+
+-- findUpdatedSince (search index sync)
+create index idx_products_updated_at on products (updated_at);
+
+-- findByCategoryId and /api/products/query filtered by category, newest first
+create index idx_products_category_created_at_id on products (category_id, created_at desc, id desc);
+
+-- findByBrand and /api/products/query filtered by brand, newest first
+create index idx_products_brand_created_at_id on products (brand, created_at desc, id desc);
+
+-- findBySellerId and /api/products/query filtered by seller, newest first
+create index idx_products_seller_created_at_id on products (seller_id, created_at desc, id desc);
+
+-- findByIsFeatured and /api/products/query filtered on featured, newest first
+create index idx_products_featured_created_at_id on products (is_featured, created_at desc, id desc);
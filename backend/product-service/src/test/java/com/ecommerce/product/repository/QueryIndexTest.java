@@ -0,0 +1,73 @@
+package com.ecommerce.product.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs the Flyway migrations on H2 in MySQL mode and checks that EXPLAIN plans each hot repository
+ * query on the index meant for it. The SQL is the shape Hibernate generates, with literal values.
+ */
+class QueryIndexTest {
+
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:product;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).table("flyway_schema_history_product").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	static Stream<Arguments> hotQueries() {
+		return Stream.of(
+				arguments("findPage",
+						"select p.id from products p order by p.created_at desc, p.id desc limit 20",
+						"idx_products_created_at_id"),
+				arguments("findPageAfter",
+						"select p.id from products p where p.created_at < timestamp '2024-01-15 10:00:00' "
+								+ "or (p.created_at = timestamp '2024-01-15 10:00:00' and p.id < 100) "
+								+ "order by p.created_at desc, p.id desc limit 20",
+						"idx_products_created_at_id"),
+				arguments("findBestSellers",
+						"select p.id from products p where p.status = 'ACTIVE' order by p.sold_count desc limit 10",
+						"idx_products_status_sold_count"),
+				arguments("findNewArrivals",
+						"select p.id from products p where p.status = 'ACTIVE' order by p.created_at desc limit 10",
+						"idx_products_status_created_at"),
+				arguments("findUpdatedSince",
+						"select p.id from products p where p.updated_at >= timestamp '2024-01-15 10:00:00'",
+						"idx_products_updated_at"),
+				arguments("query by category",
+						"select p.id from products p where p.category_id = 7 order by p.created_at desc, p.id desc limit 20",
+						"idx_products_category_created_at_id"),
+				arguments("query by brand",
+						"select p.id from products p where p.brand = 'Dell' order by p.created_at desc, p.id desc limit 20",
+						"idx_products_brand_created_at_id"),
+				arguments("query by seller",
+						"select p.id from products p where p.seller_id = 7 order by p.created_at desc, p.id desc limit 20",
+						"idx_products_seller_created_at_id"),
+				arguments("query by featured",
+						"select p.id from products p where p.is_featured = true order by p.created_at desc, p.id desc limit 20",
+						"idx_products_featured_created_at_id"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("hotQueries")
+	void usesIndex(String query, String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+
+		assertThat(plan).as(query).contains("/* public." + index);
+	}
+
+}
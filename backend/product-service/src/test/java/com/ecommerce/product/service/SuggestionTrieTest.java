@@ -0,0 +1,153 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.service.SuggestionTrie.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+	private final SuggestionTrie trie = new SuggestionTrie();
+
+	@Test
+	void putFindsSuggestionByAnyWordStart() {
+		trie.put(product(1, "Apple iPhone 15", 10));
+
+		assertThat(ids(trie.lookup("app", 10))).containsExactly("product:1");
+		assertThat(ids(trie.lookup("IPH", 10))).containsExactly("product:1");
+		assertThat(ids(trie.lookup("  iphone   15 ", 10))).containsExactly("product:1");
+		assertThat(ids(trie.lookup("15", 10))).containsExactly("product:1");
+	}
+
+	@Test
+	void lookupWithoutMatchIsEmpty() {
+		trie.put(product(1, "Apple iPhone 15", 10));
+
+		assertThat(trie.lookup("samsung", 10)).isEmpty();
+		assertThat(trie.lookup("phone", 10)).isEmpty();
+		assertThat(trie.lookup("", 10)).isEmpty();
+		assertThat(trie.lookup(null, 10)).isEmpty();
+	}
+
+	@Test
+	void lookupMatchesLongPrefixOnItsStart() {
+		String name = "Ultra Wide Curved Gaming Monitor With Speakers";
+		trie.put(product(1, name, 1));
+
+		assertThat(ids(trie.lookup(name, 10))).containsExactly("product:1");
+	}
+
+	@Test
+	void putWithSameIdReplacesSuggestion() {
+		trie.put(product(1, "Dell XPS 13", 5));
+		trie.put(product(2, "Dell Inspiron", 20));
+		trie.put(product(1, "Dell XPS 13", 50));
+
+		List<Suggestion> suggestions = trie.lookup("dell", 10);
+
+		assertThat(ids(suggestions)).containsExactly("product:1", "product:2");
+		assertThat(suggestions.get(0).getSoldCount()).isEqualTo(50);
+	}
+
+	@Test
+	void removeDropsSuggestionAndKeepsOthersOnSharedPrefix() {
+		Suggestion iphone15 = product(1, "Apple iPhone 15", 10);
+		trie.put(iphone15);
+		trie.put(product(2, "Apple iPhone 14", 5));
+
+		trie.remove(iphone15);
+
+		assertThat(ids(trie.lookup("apple", 10))).containsExactly("product:2");
+		assertThat(ids(trie.lookup("iphone 1", 10))).containsExactly("product:2");
+		assertThat(trie.lookup("iphone 15", 10)).isEmpty();
+		assertThat(trie.lookup("15", 10)).isEmpty();
+	}
+
+	@Test
+	void removeOfUnknownSuggestionChangesNothing() {
+		trie.put(product(1, "Apple iPhone 15", 10));
+
+		trie.remove(product(2, "Apple iPhone 15", 10));
+		trie.remove(product(3, "Samsung Galaxy", 10));
+
+		assertThat(ids(trie.lookup("apple", 10))).containsExactly("product:1");
+	}
+
+	@Test
+	void removingLastSuggestionPrunesEveryNode() {
+		Suggestion iphone = product(1, "Apple iPhone 15", 10);
+		Suggestion galaxy = product(2, "Samsung Galaxy S24", 8);
+		trie.put(iphone);
+		trie.put(galaxy);
+
+		trie.remove(iphone);
+		assertThat(trie.isEmpty()).isFalse();
+
+		trie.remove(galaxy);
+		assertThat(trie.isEmpty()).isTrue();
+		assertThat(trie.lookup("s", 10)).isEmpty();
+	}
+
+	@Test
+	void ranksBySoldCountDescending() {
+		trie.put(product(1, "Laptop Stand", 3));
+		trie.put(product(2, "Laptop Bag", 30));
+		trie.put(product(3, "Laptop Sleeve", 12));
+
+		assertThat(ids(trie.lookup("lap", 10))).containsExactly("product:2", "product:3", "product:1");
+	}
+
+	@Test
+	void breaksSoldCountTiesByText() {
+		trie.put(product(1, "Laptop Stand", 7));
+		trie.put(product(2, "Laptop Bag", 7));
+		trie.put(product(3, "Laptop Sleeve", 7));
+		trie.put(product(4, "Laptop Charger", 9));
+
+		assertThat(ids(trie.lookup("laptop", 10)))
+				.containsExactly("product:4", "product:2", "product:3", "product:1");
+	}
+
+	@Test
+	void reranksWhenSoldCountChanges() {
+		trie.put(product(1, "Laptop Stand", 3));
+		trie.put(product(2, "Laptop Bag", 30));
+
+		trie.put(product(1, "Laptop Stand", 40));
+
+		assertThat(ids(trie.lookup("laptop", 10))).containsExactly("product:1", "product:2");
+	}
+
+	@Test
+	void keepsOnlyTheBestSuggestionsUpToLimit() {
+		for (int i = 1; i <= SuggestionTrie.MAX_SUGGESTIONS + 5; i++) {
+			trie.put(product(i, "Cable " + i, i));
+		}
+
+		assertThat(ids(trie.lookup("cable", 3))).containsExactly("product:15", "product:14", "product:13");
+		assertThat(trie.lookup("cable", 100)).hasSize(SuggestionTrie.MAX_SUGGESTIONS);
+	}
+
+	@Test
+	void removedSuggestionIsReplacedByNextBest() {
+		for (int i = 1; i <= SuggestionTrie.MAX_SUGGESTIONS + 1; i++) {
+			trie.put(product(i, "Cable " + i, i));
+		}
+
+		trie.remove(product(11, "Cable 11", 11));
+
+		assertThat(trie.lookup("cable", 100)).hasSize(SuggestionTrie.MAX_SUGGESTIONS);
+		assertThat(ids(trie.lookup("cable", 100))).contains("product:1").doesNotContain("product:11");
+	}
+
+	private static Suggestion product(long id, String name, long soldCount) {
+		return new Suggestion("product:" + id, "PRODUCT", name, id, soldCount);
+	}
+
+	private static List<String> ids(List<Suggestion> suggestions) {
+		return suggestions.stream().map(Suggestion::getId).toList();
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.user.controller;
 
+import com.ecommerce.user.dto.CursorPageResponseDTO;
 import com.ecommerce.user.dto.UserRequestDTO;
 import com.ecommerce.user.dto.UserResponseDTO;
 import com.ecommerce.user.dto.UserUpdateDTO;
@@ -120,6 +121,21 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Get users page by page",
+            description = "Retrieve users newest first, one page at a time. Pass the returned nextCursor as cursor to get the next page."
+    )
+    @ApiResponse(responseCode = "200", description = "Page of users retrieved successfully")
+    public ResponseEntity<CursorPageResponseDTO<UserResponseDTO>> getUsersPage(
+            @Parameter(description = "Cursor returned with the previous page, omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(required = false) Integer size) {
+        CursorPageResponseDTO<UserResponseDTO> page = userService.getUsersPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/status/{status}")
     @Operation(
             summary = "Get users by status",
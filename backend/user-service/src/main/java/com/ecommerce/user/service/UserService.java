@@ -1,5 +1,6 @@
 package com.ecommerce.user.service;
 
+import com.ecommerce.user.dto.CursorPageResponseDTO;
 import com.ecommerce.user.dto.UserRequestDTO;
 import com.ecommerce.user.dto.UserResponseDTO;
 import com.ecommerce.user.dto.UserUpdateDTO;
@@ -9,6 +10,8 @@ import com.ecommerce.user.exception.ResourceNotFoundException;
 import com.ecommerce.user.exception.UserAlreadyExistsException;
 import com.ecommerce.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -68,6 +71,20 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    public CursorPageResponseDTO<UserResponseDTO> getUsersPage(String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<User> users;
+        if (cursor == null || cursor.isBlank()) {
+            users = userRepository.findPage(limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            users = userRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        return PageCursor.page(users, pageSize, User::getCreatedAt, User::getId, this::mapToResponseDTO);
+    }
+
     public List<UserResponseDTO> getUsersByStatus(UserStatus status) {
         return userRepository.findByStatus(status).stream()
                 .map(this::mapToResponseDTO)
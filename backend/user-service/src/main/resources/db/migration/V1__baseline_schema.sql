@@ -0,0 +1,24 @@
+-- Baseline of the tables owned by user-service, as Hibernate created them with ddl-auto: update.
+-- IF NOT EXISTS keeps this a no-op on databases that already have them (see spring.flyway in
+-- application.yml); parent tables come first for the foreign keys.
+
+create table if not exists users (
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    address varchar(255),
+    city varchar(255),
+    country varchar(255),
+    email varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    password varchar(255) not null,
+    phone_number varchar(255),
+    state varchar(255),
+    zip_code varchar(255),
+    role enum ('ADMIN','CUSTOMER','SELLER') not null,
+    status enum ('ACTIVE','DELETED','INACTIVE','SUSPENDED') not null,
+    primary key (id),
+    constraint UK9q63snka3mdh91as4io72espi unique (phone_number),
+    constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email)
+) engine=InnoDB;
@@ -0,0 +1,9 @@
+-- Indexes for the user-service repository queries that filtered or sorted on unindexed columns.
+-- V1 only creates missing tables, so every index an existing table needs is created here.
+-- Indexes walked for newest first listings are descending, so the scan runs forward in listing order.
+
+-- findPage, findPageAfter
+create index idx_users_created_at_id on users (created_at desc, id desc);
+
+-- findByStatus
+create index idx_users_status on users (status);
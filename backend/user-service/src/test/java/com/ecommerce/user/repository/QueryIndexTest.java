@@ -0,0 +1,55 @@
+package com.ecommerce.user.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Runs the Flyway migrations on H2 in MySQL mode and checks that EXPLAIN plans each hot repository
+ * query on the index meant for it. The SQL is the shape Hibernate generates, with literal values.
+ */
+class QueryIndexTest {
+
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void migrate() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:user;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+		Flyway.configure().dataSource(dataSource).table("flyway_schema_history_user").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	static Stream<Arguments> hotQueries() {
+		return Stream.of(
+				arguments("findPage",
+						"select u.id from users u order by u.created_at desc, u.id desc limit 20",
+						"idx_users_created_at_id"),
+				arguments("findPageAfter",
+						"select u.id from users u where u.created_at < timestamp '2024-01-15 10:00:00' "
+								+ "or (u.created_at = timestamp '2024-01-15 10:00:00' and u.id < 100) "
+								+ "order by u.created_at desc, u.id desc limit 20",
+						"idx_users_created_at_id"),
+				arguments("findByStatus",
+						"select u.id from users u where u.status = 'ACTIVE'",
+						"idx_users_status"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("hotQueries")
+	void usesIndex(String query, String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+
+		assertThat(plan).as(query).contains("/* public." + index);
+	}
+
+}